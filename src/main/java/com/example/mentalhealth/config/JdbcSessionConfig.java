@@ -0,0 +1,31 @@
+package com.example.mentalhealth.config;
+
+import com.example.mentalhealth.web.JdbcSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Replaces the container's in-memory {@code HttpSession} with {@link JdbcSessionRepository}
+ * when {@code mindcare.session.store=jdbc}, so session logins survive restarts and work
+ * behind a load balancer without sticky sessions.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mindcare.session.store", havingValue = "jdbc")
+@EnableSpringHttpSession
+public class JdbcSessionConfig {
+    @Bean
+    public JdbcSessionRepository sessionRepository(JdbcTemplate jdbcTemplate,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                   @Value("${mindcare.session.jdbc.flush-interval-ms:5000}") long flushIntervalMillis,
+                                                   @Value("${mindcare.session.jdbc.sweep-chunk-size:500}") int sweepChunkSize) {
+        return new JdbcSessionRepository(jdbcTemplate, timeout, flushIntervalMillis, sweepChunkSize, meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.mentalhealth.config;
+
+import com.example.mentalhealth.service.SessionAuthService;
+import com.example.mentalhealth.web.CurrentIdentityArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final SessionAuthService auth;
+
+    public WebConfig(SessionAuthService auth) {
+        this.auth = auth;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentIdentityArgumentResolver(auth));
+    }
+}
@@ -7,13 +7,21 @@ import com.example.mentalhealth.model.ProfileChange;
 import com.example.mentalhealth.repository.AppointmentRepository;
 import com.example.mentalhealth.repository.AvailabilityRepository;
 import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.PatientMoodStatsRepository;
 import com.example.mentalhealth.repository.PatientRepository;
 import com.example.mentalhealth.repository.UserRepository;
 import com.example.mentalhealth.repository.ProfileChangeRepository;
+import com.example.mentalhealth.repository.WaitlistEntryRepository;
+import com.example.mentalhealth.service.PasswordHashingService;
 import com.example.mentalhealth.service.SessionAuthService;
+import com.example.mentalhealth.service.booking.BookingRulePipeline;
+import com.example.mentalhealth.service.booking.CounselorScheduleCache;
+import com.example.mentalhealth.service.mood.MoodSeriesStore;
+import com.example.mentalhealth.service.mood.MoodSeriesUsage;
+import com.example.mentalhealth.web.Keyset;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,33 +36,63 @@ public class AdminApiController {
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
     private final MoodEntryRepository moodEntryRepository;
+    private final PatientMoodStatsRepository patientMoodStatsRepository;
     private final AppointmentRepository appointmentRepository;
     private final AvailabilityRepository availabilityRepository;
     private final ProfileChangeRepository profileChangeRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PasswordHashingService passwordHashing;
+    private final CounselorScheduleCache scheduleCache;
+    private final BookingRulePipeline bookingRulePipeline;
+    private final MoodSeriesStore moodSeriesStore;
 
     public AdminApiController(SessionAuthService auth,
                              UserRepository userRepository,
                              PatientRepository patientRepository,
                              MoodEntryRepository moodEntryRepository,
+                             PatientMoodStatsRepository patientMoodStatsRepository,
                              AppointmentRepository appointmentRepository,
                              AvailabilityRepository availabilityRepository,
-                             BCryptPasswordEncoder passwordEncoder,
-                             ProfileChangeRepository profileChangeRepository) {
+                             PasswordHashingService passwordHashing,
+                             ProfileChangeRepository profileChangeRepository,
+                             WaitlistEntryRepository waitlistEntryRepository,
+                             CounselorScheduleCache scheduleCache,
+                             BookingRulePipeline bookingRulePipeline,
+                             MoodSeriesStore moodSeriesStore) {
         this.auth = auth;
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
         this.moodEntryRepository = moodEntryRepository;
+        this.patientMoodStatsRepository = patientMoodStatsRepository;
         this.appointmentRepository = appointmentRepository;
         this.availabilityRepository = availabilityRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashing = passwordHashing;
         this.profileChangeRepository = profileChangeRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.scheduleCache = scheduleCache;
+        this.bookingRulePipeline = bookingRulePipeline;
+        this.moodSeriesStore = moodSeriesStore;
     }
 
+    /**
+     * Users in id order, optionally filtered by role and active flag, paged by id; see {@link Keyset}.
+     */
     @GetMapping("/users")
-    public List<Map<String, Object>> users(HttpSession session) {
+    public List<Map<String, Object>> users(@RequestParam(required = false) User.Role role,
+                                           @RequestParam(required = false) Boolean active,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit,
+                                           HttpSession session,
+                                           HttpServletResponse response) {
         auth.requireRole(session, User.Role.admin);
-        return userRepository.findAll().stream().map(this::userResponse).toList();
+        int pageSize = Keyset.limit(limit);
+        long afterId = cursor == null ? 0 : Keyset.decode(cursor, 1, k -> Long.parseLong(k[0]));
+
+        List<User> rows = userRepository.findPage(afterId, role, active, Keyset.fetchLimit(pageSize));
+        return Keyset.page(rows, pageSize, response, u -> Keyset.encode(u.getId()))
+                .stream()
+                .map(this::userResponse)
+                .toList();
     }
 
     @PostMapping("/counselors")
@@ -74,7 +112,7 @@ public class AdminApiController {
         user.setName(req.name);
         user.setRole(User.Role.counselor);
         user.setActive(true);
-        user.setPassword(passwordEncoder.encode(req.password));
+        user.setPassword(passwordHashing.encode(req.password));
         user.setSpecialty(req.specialty);
         user = userRepository.save(user);
         return userResponse(user);
@@ -97,7 +135,7 @@ public class AdminApiController {
         user.setName(req.name);
         user.setRole(User.Role.admin);
         user.setActive(true);
-        user.setPassword(passwordEncoder.encode(req.password));
+        user.setPassword(passwordHashing.encode(req.password));
         user = userRepository.save(user);
         return userResponse(user);
     }
@@ -111,6 +149,7 @@ public class AdminApiController {
         User user = userRepository.findById(id).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
         user.setRole(req.role);
         user = userRepository.save(user);
+        auth.revokeLogins(user.getId());
         return userResponse(user);
     }
 
@@ -123,6 +162,11 @@ public class AdminApiController {
         User user = userRepository.findById(id).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
         user.setActive(req.active);
         user = userRepository.save(user);
+        if (req.active) {
+            auth.evict(user.getId());
+        } else {
+            auth.revokeLogins(user.getId());
+        }
         return userResponse(user);
     }
 
@@ -151,6 +195,7 @@ public class AdminApiController {
         }
         
         user = userRepository.save(user);
+        auth.evict(user.getId());
         return userResponse(user);
     }
 
@@ -164,20 +209,27 @@ public class AdminApiController {
             Patient patient = patientRepository.findByUserId(user.getId()).orElse(null);
             if (patient != null) {
                 moodEntryRepository.deleteByPatient(patient);
+                patientMoodStatsRepository.deleteById(patient.getId());
+                moodSeriesStore.evict(patient.getId());
+                waitlistEntryRepository.deleteByPatient(patient);
                 appointmentRepository.deleteByPatient(patient);
                 patientRepository.delete(patient);
             }
         }
 
         if (user.getRole() == User.Role.counselor) {
+            waitlistEntryRepository.deleteByCounselor(user);
             appointmentRepository.deleteByCounselor(user);
             availabilityRepository.deleteByCounselor(user);
+            scheduleCache.invalidate(user.getId());
             for (Patient p : patientRepository.findByAssignedCounselor(user)) {
                 p.setAssignedCounselor(null);
                 patientRepository.save(p);
             }
         }
 
+        // Before the delete, while the row still carries the version to record.
+        auth.revokeLogins(user.getId());
         userRepository.delete(user);
         return Map.of("ok", true);
     }
@@ -191,6 +243,39 @@ public class AdminApiController {
                 .toList();
     }
 
+    /**
+     * Per-rule evaluation counts, rejections and mean latency, in current execution order.
+     * The same figures are exported as mindcare.booking.rule.* meters.
+     */
+    @GetMapping("/booking-rules")
+    public List<Map<String, Object>> bookingRuleStats(HttpSession session) {
+        auth.requireRole(session, User.Role.admin);
+        return bookingRulePipeline.snapshot().stream().map(r -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("rule", r.rule());
+            m.put("evaluations", r.evaluations());
+            m.put("rejections", r.rejections());
+            m.put("meanMicros", r.meanMicros());
+            return m;
+        }).toList();
+    }
+
+    /**
+     * Size of the in-memory mood series tier, with the estimate scaled to 10,000 patients for
+     * capacity planning. Also exported as the mindcare.mood.series.bytes gauge.
+     */
+    @GetMapping("/mood-series")
+    public Map<String, Object> moodSeriesUsage(HttpSession session) {
+        auth.requireRole(session, User.Role.admin);
+        MoodSeriesUsage usage = moodSeriesStore.usage();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("patients", usage.patients());
+        m.put("bytes", usage.bytes());
+        m.put("bytesPerPatient", usage.bytesPerPatient());
+        m.put("bytesPer10kPatients", usage.bytesPer10kPatients());
+        return m;
+    }
+
     private Map<String, Object> userResponse(User user) {
         Map<String, Object> resp = new LinkedHashMap<>();
         resp.put("id", user.getId());
@@ -5,10 +5,10 @@ import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
 import com.example.mentalhealth.repository.PatientRepository;
 import com.example.mentalhealth.repository.UserRepository;
+import com.example.mentalhealth.service.PasswordHashingService;
 import com.example.mentalhealth.service.SessionAuthService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.LinkedHashMap;
@@ -19,12 +19,14 @@ import java.util.Map;
 public class AuthController {
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashing;
+    private final SessionAuthService auth;
 
-    public AuthController(UserRepository userRepository, PatientRepository patientRepository, BCryptPasswordEncoder passwordEncoder) {
+    public AuthController(UserRepository userRepository, PatientRepository patientRepository, PasswordHashingService passwordHashing, SessionAuthService auth) {
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashing = passwordHashing;
+        this.auth = auth;
     }
 
     @PostMapping("/register")
@@ -48,7 +50,7 @@ public class AuthController {
         user.setName(req.name);
         user.setRole(User.Role.patient);
         user.setActive(true);
-        user.setPassword(passwordEncoder.encode(req.password));
+        user.setPassword(passwordHashing.encode(req.password));
         user = userRepository.save(user);
 
         if (user.getRole() == User.Role.patient) {
@@ -66,8 +68,7 @@ public class AuthController {
             patientRepository.save(patient);
         }
 
-        session.setAttribute(SessionAuthService.SESSION_USER_ID, user.getId());
-        return userResponse(user);
+        return signedInResponse(session, user);
     }
 
     @PostMapping("/login")
@@ -76,34 +77,32 @@ public class AuthController {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Email and password are required");
         }
 
-        User user = userRepository.findByEmail(req.email.trim().toLowerCase())
-                .orElseThrow(() -> new ApiException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+        User user = userRepository.findByEmail(req.email.trim().toLowerCase()).orElse(null);
 
-        if (!user.isActive()) {
-            throw new ApiException(HttpStatus.FORBIDDEN, "Account is deactivated");
+        // Unknown emails are checked against a dummy hash and the deactivation check comes after
+        // the password, so neither response time nor status reveals whether an account exists.
+        boolean valid = passwordHashing.matches(req.password, user == null ? null : user.getPassword());
+        if (user == null || !valid) {
+            throw new ApiException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
 
-        if (!passwordEncoder.matches(req.password, user.getPassword())) {
-            throw new ApiException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        if (!user.isActive()) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Account is deactivated");
         }
 
-        session.setAttribute(SessionAuthService.SESSION_USER_ID, user.getId());
-        return userResponse(user);
+        passwordHashing.rehashIfNeeded(user.getId(), req.password, user.getPassword());
+        return signedInResponse(session, user);
     }
 
     @PostMapping("/logout")
     public Map<String, Object> logout(HttpSession session) {
-        session.invalidate();
+        auth.signOut(session);
         return Map.of("ok", true);
     }
 
     @GetMapping("/me")
     public Map<String, Object> me(HttpSession session) {
-        Object id = session.getAttribute(SessionAuthService.SESSION_USER_ID);
-        if (!(id instanceof Long userId)) {
-            return Map.of("authenticated", false);
-        }
-        User user = userRepository.findById(userId).orElse(null);
+        User user = auth.withProfile(auth.getCurrentUser(session));
         if (user == null) {
             return Map.of("authenticated", false);
         }
@@ -112,6 +111,15 @@ public class AuthController {
         return resp;
     }
 
+    private Map<String, Object> signedInResponse(HttpSession session, User user) {
+        String token = auth.signIn(session, user);
+        Map<String, Object> resp = userResponse(user);
+        if (token != null) {
+            resp.put("token", token);
+        }
+        return resp;
+    }
+
     private Map<String, Object> userResponse(User user) {
         Map<String, Object> resp = new LinkedHashMap<>();
         resp.put("id", user.getId());
@@ -6,16 +6,33 @@ import com.example.mentalhealth.model.Availability;
 import com.example.mentalhealth.model.MoodEntry;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentListing;
 import com.example.mentalhealth.repository.AppointmentRepository;
 import com.example.mentalhealth.repository.AvailabilityRepository;
 import com.example.mentalhealth.repository.MoodEntryRepository;
 import com.example.mentalhealth.repository.PatientRepository;
+import com.example.mentalhealth.repository.PatientSummary;
 import com.example.mentalhealth.service.SessionAuthService;
+import com.example.mentalhealth.service.booking.AppointmentBookingService;
+import com.example.mentalhealth.service.booking.AppointmentChangeFeed;
+import com.example.mentalhealth.service.booking.AppointmentChangePage;
+import com.example.mentalhealth.service.booking.CounselorScheduleCache;
+import com.example.mentalhealth.service.mood.MoodBucket;
+import com.example.mentalhealth.service.mood.MoodGranularity;
+import com.example.mentalhealth.service.mood.MoodStatsService;
+import com.example.mentalhealth.service.mood.MoodTrendService;
+import com.example.mentalhealth.service.mood.PatientMoodSummary;
+import com.example.mentalhealth.web.Keyset;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,17 +45,29 @@ public class CounselorApiController {
     private final MoodEntryRepository moodEntryRepository;
     private final AppointmentRepository appointmentRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final CounselorScheduleCache scheduleCache;
+    private final MoodTrendService moodTrendService;
+    private final MoodStatsService moodStatsService;
+    private final AppointmentChangeFeed changeFeed;
 
     public CounselorApiController(SessionAuthService auth,
                                  PatientRepository patientRepository,
                                  MoodEntryRepository moodEntryRepository,
                                  AppointmentRepository appointmentRepository,
-                                 AvailabilityRepository availabilityRepository) {
+                                 AvailabilityRepository availabilityRepository,
+                                 CounselorScheduleCache scheduleCache,
+                                 MoodTrendService moodTrendService,
+                                 MoodStatsService moodStatsService,
+                                 AppointmentChangeFeed changeFeed) {
         this.auth = auth;
         this.patientRepository = patientRepository;
         this.moodEntryRepository = moodEntryRepository;
         this.appointmentRepository = appointmentRepository;
         this.availabilityRepository = availabilityRepository;
+        this.scheduleCache = scheduleCache;
+        this.moodTrendService = moodTrendService;
+        this.moodStatsService = moodStatsService;
+        this.changeFeed = changeFeed;
     }
 
     @GetMapping("/patients")
@@ -55,27 +84,38 @@ public class CounselorApiController {
          */
         User counselor = auth.requireRole(session, User.Role.counselor);
 
-        // Preserve insertion order (assigned first, then booked).
-        Map<Long, Patient> unique = new LinkedHashMap<>();
-
-        for (Patient p : patientRepository.findByAssignedCounselor(counselor)) {
-            if (p != null && p.getId() != null) {
-                unique.putIfAbsent(p.getId(), p);
-            }
+        // Two projection queries (assigned, then booked) instead of loading each appointment's
+        // patient graph. Preserve insertion order (assigned first, then booked).
+        Map<Long, PatientSummary> unique = new LinkedHashMap<>();
+        for (PatientSummary p : patientRepository.findSummariesByAssignedCounselorId(counselor.getId())) {
+            unique.putIfAbsent(p.id(), p);
         }
-
-        for (Appointment ap : appointmentRepository.findByCounselorOrderByAppointmentDateAscAppointmentTimeAsc(counselor)) {
-            Patient p = ap.getPatient();
-            if (p != null && p.getId() != null) {
-                unique.putIfAbsent(p.getId(), p);
-            }
+        for (PatientSummary p : appointmentRepository.findPatientSummariesForCounselor(counselor.getId())) {
+            unique.putIfAbsent(p.id(), p);
         }
 
         return unique.values().stream().map(this::patientSummary).toList();
     }
 
+    /**
+     * Mood figures for every patient in {@link #myPatients}: latest rating, 7- and 30-day means
+     * and the week-over-week trend, read from the maintained stats in a single query.
+     */
+    @GetMapping("/patients/mood-stats")
+    public List<Map<String, Object>> patientMoodStats(HttpSession session) {
+        User counselor = auth.requireRole(session, User.Role.counselor);
+        return moodStatsService.forCounselor(counselor.getId()).stream().map(this::moodSummaryResponse).toList();
+    }
+
     @GetMapping("/patients/{patientId}/mood")
-    public List<Map<String, Object>> patientMood(@PathVariable Long patientId, HttpSession session) {
+    public List<Map<String, Object>> patientMood(@PathVariable Long patientId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) MoodGranularity granularity,
+                                                 HttpSession session,
+                                                 HttpServletResponse response) {
         User counselor = auth.requireRole(session, User.Role.counselor);
         Patient patient = patientRepository.findById(patientId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Patient not found"));
         /**
@@ -95,16 +135,66 @@ public class CounselorApiController {
         if (!assigned && !booked) {
             throw new ApiException(HttpStatus.FORBIDDEN, "Access denied");
         }
-        return moodEntryRepository.findByPatientOrderByEntryDateAsc(patient)
+        if (granularity != null) {
+            return moodTrendService.buckets(patient.getId(), from == null ? Keyset.MIN_DATE : from, to == null ? Keyset.MAX_DATE : to, granularity)
+                    .stream()
+                    .map(this::moodBucketResponse)
+                    .toList();
+        }
+        int pageSize = Keyset.limit(limit);
+        LocalDate after = (from == null ? Keyset.MIN_DATE : from).minusDays(1);
+        if (cursor != null) {
+            LocalDate last = Keyset.decode(cursor, 1, k -> LocalDate.parse(k[0]));
+            after = last.isAfter(after) ? last : after;
+        }
+        List<MoodEntry> rows = moodEntryRepository.findPage(patient, after, to == null ? Keyset.MAX_DATE : to, Keyset.fetchLimit(pageSize));
+        return Keyset.page(rows, pageSize, response, e -> Keyset.encode(e.getEntryDate()))
                 .stream()
                 .map(this::moodEntryResponse)
                 .toList();
     }
 
+    /**
+     * Appointments by date and time, paged by {@code (date, time, id)}; see {@link Keyset}. The
+     * first page carries the current change version in {@value AppointmentChangeFeed#HEADER}.
+     *
+     * With {@code since} (a change version from an earlier read) returns only what changed after
+     * it, in version order: appointments as they are now and {@code {id, changeVersion, deleted}}
+     * tombstones. The header then holds the version to pass next; a full page may be followed by
+     * more.
+     */
     @GetMapping("/appointments")
-    public List<Map<String, Object>> myAppointments(HttpSession session) {
+    public List<Map<String, Object>> myAppointments(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long since,
+                                                    HttpSession session,
+                                                    HttpServletResponse response) {
         User counselor = auth.requireRole(session, User.Role.counselor);
-        return appointmentRepository.findByCounselorOrderByAppointmentDateAscAppointmentTimeAsc(counselor)
+        int pageSize = Keyset.limit(limit);
+        if (since != null) {
+            if (from != null || to != null || cursor != null) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "since cannot be combined with from, to or cursor");
+            }
+            if (since < 0) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "since must not be negative");
+            }
+            return changesResponse(changeFeed.forCounselor(counselor.getId(), since, pageSize), response);
+        }
+        if (cursor == null) {
+            // Read before the list, so a change racing with it is returned by the next since read.
+            response.setHeader(AppointmentChangeFeed.HEADER, String.valueOf(changeFeed.watermark()));
+        }
+        LocalDate start = from == null ? Keyset.MIN_DATE : from;
+        LocalDate end = to == null ? Keyset.MAX_DATE : to;
+        AppointmentKey after = cursor == null
+                ? new AppointmentKey(start.minusDays(1), LocalTime.MIN, 0)
+                : Keyset.decode(cursor, 3, k -> new AppointmentKey(LocalDate.parse(k[0]), LocalTime.parse(k[1]), Long.parseLong(k[2])));
+
+        List<AppointmentListing> rows = appointmentRepository.findListingsForCounselor(
+                counselor.getId(), start, end, after.date(), after.time(), after.id(), Keyset.fetchLimit(pageSize));
+        return Keyset.page(rows, pageSize, response, a -> Keyset.encode(a.appointmentDate(), a.appointmentTime(), a.id()))
                 .stream()
                 .map(this::appointmentResponse)
                 .toList();
@@ -125,7 +215,12 @@ public class CounselorApiController {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid status");
         }
         ap.setStatus(s);
-        ap = appointmentRepository.save(ap);
+        try {
+            ap = appointmentRepository.saveAndFlush(ap);
+        } catch (DataIntegrityViolationException e) {
+            // Re-activating a canceled appointment whose slot has since been booked by someone else.
+            throw AppointmentBookingService.slotConflictOr(e);
+        }
         return appointmentResponse(ap);
     }
 
@@ -143,6 +238,7 @@ public class CounselorApiController {
     public List<Map<String, Object>> replaceAvailability(@RequestBody List<AvailabilityRequest> req, HttpSession session) {
         User counselor = auth.requireRole(session, User.Role.counselor);
         availabilityRepository.deleteByCounselor(counselor);
+        scheduleCache.invalidate(counselor.getId());
 
         if (req != null) {
             for (AvailabilityRequest r : req) {
@@ -170,13 +266,17 @@ public class CounselorApiController {
                 .toList();
     }
 
-    private Map<String, Object> patientSummary(Patient patient) {
+    private Map<String, Object> patientSummary(PatientSummary patient) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", patient.userId());
+        user.put("name", patient.userName());
+        user.put("email", patient.userEmail());
+        user.put("role", patient.userRole());
+
         Map<String, Object> m = new LinkedHashMap<>();
-        m.put("id", patient.getId());
-        if (patient.getUser() != null) {
-            m.put("user", userSummary(patient.getUser()));
-        }
-        m.put("emergencyContact", patient.getEmergencyContact());
+        m.put("id", patient.id());
+        m.put("user", user);
+        m.put("emergencyContact", patient.emergencyContact());
         return m;
     }
 
@@ -198,6 +298,30 @@ public class CounselorApiController {
         return m;
     }
 
+    private Map<String, Object> moodSummaryResponse(PatientMoodSummary s) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("patientId", s.patientId());
+        m.put("latestDate", s.latestDate());
+        m.put("latestRating", s.latestRating());
+        m.put("mean7", s.mean7());
+        m.put("count7", s.count7());
+        m.put("mean30", s.mean30());
+        m.put("count30", s.count30());
+        m.put("trend", s.trend());
+        return m;
+    }
+
+    private Map<String, Object> moodBucketResponse(MoodBucket bucket) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("start", bucket.start());
+        m.put("end", bucket.end());
+        m.put("count", bucket.count());
+        m.put("min", bucket.min());
+        m.put("max", bucket.max());
+        m.put("mean", bucket.mean());
+        return m;
+    }
+
     private Map<String, Object> appointmentResponse(Appointment ap) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", ap.getId());
@@ -213,6 +337,40 @@ public class CounselorApiController {
         return m;
     }
 
+    private Map<String, Object> appointmentResponse(AppointmentListing ap) {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("id", ap.userId());
+        patient.put("name", ap.userName());
+        patient.put("email", ap.userEmail());
+        patient.put("role", ap.userRole());
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", ap.id());
+        m.put("appointmentDate", ap.appointmentDate());
+        m.put("appointmentTime", ap.appointmentTime());
+        m.put("status", ap.status());
+        m.put("patientId", ap.patientId());
+        m.put("patient", patient);
+        m.put("changeVersion", ap.changeVersion());
+        return m;
+    }
+
+    private List<Map<String, Object>> changesResponse(AppointmentChangePage page, HttpServletResponse response) {
+        response.setHeader(AppointmentChangeFeed.HEADER, String.valueOf(page.watermark()));
+        return page.changes().stream()
+                .map(c -> {
+                    if (!c.isDeleted()) {
+                        return appointmentResponse(c.appointment());
+                    }
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("id", c.appointmentId());
+                    m.put("changeVersion", c.changeVersion());
+                    m.put("deleted", true);
+                    return m;
+                })
+                .toList();
+    }
+
     private Map<String, Object> availabilityResponse(Availability a) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", a.getId());
@@ -222,13 +380,16 @@ public class CounselorApiController {
         return m;
     }
 
+    private record AppointmentKey(LocalDate date, LocalTime time, long id) {
+    }
+
     public static class StatusRequest {
         public String status;
     }
 
     public static class AvailabilityRequest {
         public Integer dayOfWeek;
-        public java.time.LocalTime startTime;
-        public java.time.LocalTime endTime;
+        public LocalTime startTime;
+        public LocalTime endTime;
     }
 }
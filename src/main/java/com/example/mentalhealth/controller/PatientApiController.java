@@ -6,53 +6,91 @@ import com.example.mentalhealth.model.Availability;
 import com.example.mentalhealth.model.MoodEntry;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.model.WaitlistEntry;
+import com.example.mentalhealth.repository.AppointmentListing;
 import com.example.mentalhealth.repository.AppointmentRepository;
 import com.example.mentalhealth.repository.AvailabilityRepository;
 import com.example.mentalhealth.repository.MoodEntryRepository;
 import com.example.mentalhealth.repository.PatientRepository;
 import com.example.mentalhealth.repository.UserRepository;
-import com.example.mentalhealth.service.SessionAuthService;
+import com.example.mentalhealth.service.IdempotencyService;
+import com.example.mentalhealth.service.booking.AppointmentChangeFeed;
+import com.example.mentalhealth.service.booking.AppointmentChangePage;
 import com.example.mentalhealth.service.booking.AppointmentBookingService;
-import jakarta.servlet.http.HttpSession;
+import com.example.mentalhealth.service.booking.OpenSlot;
+import com.example.mentalhealth.service.booking.OpenSlotService;
+import com.example.mentalhealth.service.booking.SeriesOccurrence;
+import com.example.mentalhealth.service.booking.SlotHoldRegistry;
+import com.example.mentalhealth.service.booking.WaitlistService;
+import com.example.mentalhealth.service.mood.MoodBucket;
+import com.example.mentalhealth.service.mood.MoodEntryService;
+import com.example.mentalhealth.service.mood.MoodGranularity;
+import com.example.mentalhealth.service.mood.MoodSyncEdit;
+import com.example.mentalhealth.service.mood.MoodSyncResult;
+import com.example.mentalhealth.service.mood.MoodTrendService;
+import com.example.mentalhealth.web.CurrentPatient;
+import com.example.mentalhealth.web.CurrentUser;
+import com.example.mentalhealth.web.Keyset;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/patient")
 public class PatientApiController {
-    private final SessionAuthService auth;
     private final UserRepository userRepository;
     private final PatientRepository patientRepository;
     private final MoodEntryRepository moodEntryRepository;
     private final AppointmentRepository appointmentRepository;
     private final AvailabilityRepository availabilityRepository;
     private final AppointmentBookingService appointmentBookingService;
+    private final OpenSlotService openSlotService;
+    private final WaitlistService waitlistService;
+    private final IdempotencyService idempotency;
+    private final MoodTrendService moodTrendService;
+    private final MoodEntryService moodEntryService;
+    private final AppointmentChangeFeed changeFeed;
 
-    public PatientApiController(SessionAuthService auth,
-                               UserRepository userRepository,
+    public PatientApiController(UserRepository userRepository,
                                PatientRepository patientRepository,
                                MoodEntryRepository moodEntryRepository,
                                AppointmentRepository appointmentRepository,
                                AvailabilityRepository availabilityRepository,
-                               AppointmentBookingService appointmentBookingService) {
-        this.auth = auth;
+                               AppointmentBookingService appointmentBookingService,
+                               OpenSlotService openSlotService,
+                               WaitlistService waitlistService,
+                               IdempotencyService idempotency,
+                               MoodTrendService moodTrendService,
+                               MoodEntryService moodEntryService,
+                               AppointmentChangeFeed changeFeed) {
         this.userRepository = userRepository;
         this.patientRepository = patientRepository;
         this.moodEntryRepository = moodEntryRepository;
         this.appointmentRepository = appointmentRepository;
         this.availabilityRepository = availabilityRepository;
         this.appointmentBookingService = appointmentBookingService;
+        this.openSlotService = openSlotService;
+        this.waitlistService = waitlistService;
+        this.idempotency = idempotency;
+        this.moodTrendService = moodTrendService;
+        this.moodEntryService = moodEntryService;
+        this.changeFeed = changeFeed;
     }
 
     @GetMapping("/counselors")
-    public List<Map<String, Object>> listCounselors(HttpSession session) {
-        auth.requireRole(session, User.Role.patient);
+    public List<Map<String, Object>> listCounselors(@CurrentUser(User.Role.patient) User me) {
         return userRepository.findByRole(User.Role.counselor)
                 .stream()
                 .filter(User::isActive)
@@ -60,9 +98,39 @@ public class PatientApiController {
                 .toList();
     }
 
+    /**
+     * Earliest open slots across all active counselors in one call, replacing a per-counselor
+     * availability fetch from the UI.
+     */
+    @GetMapping("/counselors/first-available")
+    public List<Map<String, Object>> firstAvailable(@RequestParam(required = false) String specialty,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(required = false) Integer slotMinutes,
+                                                    @RequestParam(defaultValue = "1") int perCounselor,
+                                                    @RequestParam(defaultValue = "20") int limit,
+                                                    @CurrentPatient Patient patient) {
+        LocalDate start = from == null ? LocalDate.now() : from;
+        LocalDate end = to == null ? start.plusDays(13) : to;
+
+        List<OpenSlot> slots = openSlotService.findFirstAvailable(specialty, start, end, slotMinutes, perCounselor, Math.min(limit, 200), patient.getId());
+        Map<Long, User> counselors = new HashMap<>();
+        for (User c : userRepository.findAllById(slots.stream().map(OpenSlot::counselorId).distinct().toList())) {
+            counselors.put(c.getId(), c);
+        }
+
+        return slots.stream().map(slot -> {
+            Map<String, Object> m = openSlotResponse(slot);
+            User counselor = counselors.get(slot.counselorId());
+            if (counselor != null) {
+                m.put("counselor", userSummary(counselor));
+            }
+            return m;
+        }).toList();
+    }
+
     @GetMapping("/counselors/{counselorId}/availability")
-    public List<Map<String, Object>> counselorAvailability(@PathVariable Long counselorId, @RequestParam(required = false) Integer dayOfWeek, HttpSession session) {
-        auth.requireRole(session, User.Role.patient);
+    public List<Map<String, Object>> counselorAvailability(@PathVariable Long counselorId, @RequestParam(required = false) Integer dayOfWeek, @CurrentUser(User.Role.patient) User me) {
         User counselor = userRepository.findById(counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
         if (counselor.getRole() != User.Role.counselor) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "User is not a counselor");
@@ -75,42 +143,168 @@ public class PatientApiController {
         return slots.stream().map(this::availabilityResponse).toList();
     }
 
+    /**
+     * Concrete bookable slots (weekly availability minus booked appointments) so the UI
+     * does not have to guess times. Defaults to the next two weeks.
+     */
+    @GetMapping("/counselors/{counselorId}/slots")
+    public List<Map<String, Object>> counselorOpenSlots(@PathVariable Long counselorId,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(required = false) Integer slotMinutes,
+                                                        @CurrentPatient Patient patient) {
+        User counselor = userRepository.findById(counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
+
+        LocalDate start = from == null ? LocalDate.now() : from;
+        LocalDate end = to == null ? start.plusDays(13) : to;
+        return openSlotService.findOpenSlots(counselor, start, end, slotMinutes, patient.getId())
+                .stream()
+                .map(this::openSlotResponse)
+                .toList();
+    }
+
     @PostMapping("/mood")
     @ResponseStatus(HttpStatus.CREATED)
-    public Map<String, Object> upsertMood(@RequestBody MoodRequest req, HttpSession session) {
-        User me = auth.requireRole(session, User.Role.patient);
-        Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
-
+    public Map<String, Object> upsertMood(@RequestBody MoodRequest req,
+                                          @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                          @CurrentUser(User.Role.patient) User me) {
         if (req == null || req.rating < 1 || req.rating > 10) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Mood rating must be between 1 and 10");
         }
 
+        // Resolved before fingerprinting, so a retry after midnight cannot replay yesterday's entry.
         LocalDate date = req.entryDate == null ? LocalDate.now() : req.entryDate;
-        MoodEntry entry = moodEntryRepository.findByPatientAndEntryDate(patient, date).orElse(new MoodEntry());
-        entry.setPatient(patient);
-        entry.setEntryDate(date);
-        entry.setRating(req.rating);
-        entry.setNotes(req.notes);
-        entry = moodEntryRepository.save(entry);
+        String fingerprint = req.rating + "|" + date + "|" + req.notes;
+        return idempotency.execute(me.getId(), "mood", idempotencyKey, fingerprint, () -> {
+            Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
+            return moodEntryResponse(moodEntryService.upsert(patient, date, req.rating, req.notes));
+        });
+    }
+
+    /**
+     * Replays mood entries logged offline: at most {@value MoodEntryService#MAX_SYNC_ENTRIES} dated edits with the
+     * time each was made, applied last-writer-wins in one transaction. Returns one
+     * {@code applied}/{@code stale} result per entry, up to {@value MoodEntryService#MAX_SYNC_CHANGES}
+     * entries changed since {@code since} that the client did not send, and the watermark to
+     * pass as {@code since} next time. A full page of changes may be followed by more; an empty
+     * {@code entries} list pulls them.
+     */
+    @PostMapping("/mood/sync")
+    public Map<String, Object> syncMood(@RequestBody MoodSyncRequest req, @CurrentPatient Patient patient) {
+        if (req == null || req.entries == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "entries are required");
+        }
+        if (req.entries.size() > MoodEntryService.MAX_SYNC_ENTRIES) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "At most " + MoodEntryService.MAX_SYNC_ENTRIES + " entries per sync");
+        }
+        Set<LocalDate> dates = new HashSet<>();
+        List<MoodSyncEdit> edits = new ArrayList<>(req.entries.size());
+        for (MoodSyncEntry e : req.entries) {
+            if (e == null || e.entryDate == null || e.clientUpdatedAt == null) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Each entry needs entryDate and clientUpdatedAt");
+            }
+            if (e.rating < 1 || e.rating > 10) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Mood rating must be between 1 and 10");
+            }
+            if (!dates.add(e.entryDate)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Duplicate entryDate " + e.entryDate);
+            }
+            edits.add(new MoodSyncEdit(e.entryDate, e.rating, e.notes, e.clientUpdatedAt));
+        }
+
+        MoodSyncResult result = moodEntryService.sync(patient, req.since == null ? 0 : req.since, edits);
 
-        return moodEntryResponse(entry);
+        Map<String, Object> resp = new LinkedHashMap<>();
+        resp.put("watermark", result.watermark());
+        resp.put("results", result.outcomes().stream().map(o -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("entryDate", o.entryDate());
+            m.put("status", o.applied() ? "applied" : "stale");
+            return m;
+        }).toList());
+        resp.put("changes", result.changes().stream().map(c -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", c.id());
+            m.put("rating", c.rating());
+            m.put("notes", c.notes());
+            m.put("entryDate", c.entryDate());
+            m.put("syncVersion", c.syncVersion());
+            return m;
+        }).toList());
+        return resp;
     }
 
+    /**
+     * Mood history oldest first, paged by entry date; see {@link Keyset}. With {@code granularity}
+     * the range is returned as day, week or month buckets (count, min, max, mean) instead.
+     */
     @GetMapping("/mood")
-    public List<Map<String, Object>> moodHistory(HttpSession session) {
-        User me = auth.requireRole(session, User.Role.patient);
-        Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
-        return moodEntryRepository.findByPatientOrderByEntryDateAsc(patient)
+    public List<Map<String, Object>> moodHistory(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) MoodGranularity granularity,
+                                                 @CurrentPatient Patient patient,
+                                                 HttpServletResponse response) {
+        if (granularity != null) {
+            return moodTrendService.buckets(patient.getId(), from == null ? Keyset.MIN_DATE : from, to == null ? Keyset.MAX_DATE : to, granularity)
+                    .stream()
+                    .map(this::moodBucketResponse)
+                    .toList();
+        }
+        int pageSize = Keyset.limit(limit);
+        LocalDate after = (from == null ? Keyset.MIN_DATE : from).minusDays(1);
+        if (cursor != null) {
+            LocalDate last = Keyset.decode(cursor, 1, k -> LocalDate.parse(k[0]));
+            after = last.isAfter(after) ? last : after;
+        }
+        List<MoodEntry> rows = moodEntryRepository.findPage(patient, after, to == null ? Keyset.MAX_DATE : to, Keyset.fetchLimit(pageSize));
+        return Keyset.page(rows, pageSize, response, e -> Keyset.encode(e.getEntryDate()))
                 .stream()
                 .map(this::moodEntryResponse)
                 .toList();
     }
 
+    /**
+     * Appointments by date and time, paged by {@code (date, time, id)}; see {@link Keyset}. The
+     * first page carries the current change version in {@value AppointmentChangeFeed#HEADER}.
+     *
+     * With {@code since} (a change version from an earlier read) returns only what changed after
+     * it, in version order: appointments as they are now and {@code {id, changeVersion, deleted}}
+     * tombstones. The header then holds the version to pass next; a full page may be followed by
+     * more.
+     */
     @GetMapping("/appointments")
-    public List<Map<String, Object>> myAppointments(HttpSession session) {
-        User me = auth.requireRole(session, User.Role.patient);
-        Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
-        return appointmentRepository.findByPatientOrderByAppointmentDateAscAppointmentTimeAsc(patient)
+    public List<Map<String, Object>> myAppointments(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Long since,
+                                                    @CurrentPatient Patient patient,
+                                                    HttpServletResponse response) {
+        int pageSize = Keyset.limit(limit);
+        if (since != null) {
+            if (from != null || to != null || cursor != null) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "since cannot be combined with from, to or cursor");
+            }
+            if (since < 0) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "since must not be negative");
+            }
+            return changesResponse(changeFeed.forPatient(patient.getId(), since, pageSize), response);
+        }
+        if (cursor == null) {
+            // Read before the list, so a change racing with it is returned by the next since read.
+            response.setHeader(AppointmentChangeFeed.HEADER, String.valueOf(changeFeed.watermark()));
+        }
+        LocalDate start = from == null ? Keyset.MIN_DATE : from;
+        LocalDate end = to == null ? Keyset.MAX_DATE : to;
+        AppointmentKey after = cursor == null
+                ? new AppointmentKey(start.minusDays(1), LocalTime.MIN, 0)
+                : Keyset.decode(cursor, 3, k -> new AppointmentKey(LocalDate.parse(k[0]), LocalTime.parse(k[1]), Long.parseLong(k[2])));
+
+        List<AppointmentListing> rows = appointmentRepository.findListingsForPatient(
+                patient.getId(), start, end, after.date(), after.time(), after.id(), Keyset.fetchLimit(pageSize));
+        return Keyset.page(rows, pageSize, response, a -> Keyset.encode(a.appointmentDate(), a.appointmentTime(), a.id()))
                 .stream()
                 .map(this::appointmentResponse)
                 .toList();
@@ -118,25 +312,88 @@ public class PatientApiController {
 
     @PostMapping("/appointments")
     @ResponseStatus(HttpStatus.CREATED)
-    public Map<String, Object> bookAppointment(@RequestBody BookAppointmentRequest req, HttpSession session) {
-        User me = auth.requireRole(session, User.Role.patient);
-        Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
+    public Map<String, Object> bookAppointment(@RequestBody BookAppointmentRequest req,
+                                               @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                               @CurrentUser(User.Role.patient) User me) {
+        if (req == null || req.counselorId == null || req.appointmentDate == null || req.appointmentTime == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "counselorId, appointmentDate and appointmentTime are required");
+        }
+
+        // A retried request with the same key gets the original response instead of re-running
+        // the booking rules and failing on its own appointment.
+        String fingerprint = req.counselorId + "|" + req.appointmentDate + "|" + req.appointmentTime;
+        return idempotency.execute(me.getId(), "appointments", idempotencyKey, fingerprint, () -> {
+            Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
+            User counselor = userRepository.findById(req.counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
+            Appointment ap = appointmentBookingService.bookAppointment(patient, counselor, req.appointmentDate, req.appointmentTime);
 
+            return appointmentResponse(ap);
+        });
+    }
+
+    /**
+     * Holds a slot for a few minutes while the patient confirms, so other patients see it as taken
+     * instead of racing for it. Booking the held slot releases the hold.
+     */
+    @PostMapping("/appointments/holds")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> holdSlot(@RequestBody BookAppointmentRequest req, @CurrentPatient Patient patient) {
         if (req == null || req.counselorId == null || req.appointmentDate == null || req.appointmentTime == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "counselorId, appointmentDate and appointmentTime are required");
         }
 
         User counselor = userRepository.findById(req.counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
-        Appointment ap = appointmentBookingService.bookAppointment(patient, counselor, req.appointmentDate, req.appointmentTime);
+        SlotHoldRegistry.SlotHold hold = appointmentBookingService.holdSlot(patient, counselor, req.appointmentDate, req.appointmentTime);
 
-        return appointmentResponse(ap);
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("holdId", hold.id());
+        m.put("counselorId", hold.key().counselorId());
+        m.put("appointmentDate", hold.key().date());
+        m.put("appointmentTime", hold.key().time());
+        m.put("expiresAt", hold.expiresAt());
+        return m;
     }
 
-    @PostMapping("/appointments/{id}/cancel")
-    public Map<String, Object> cancelAppointment(@PathVariable Long id, HttpSession session) {
-        User me = auth.requireRole(session, User.Role.patient);
-        Patient patient = patientRepository.findByUserId(me.getId()).orElseThrow(() -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
+    @DeleteMapping("/appointments/holds/{holdId}")
+    public Map<String, Object> releaseHold(@PathVariable String holdId, @CurrentPatient Patient patient) {
+        if (!appointmentBookingService.releaseHold(patient, holdId)) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "Hold not found");
+        }
+        return Map.of("ok", true);
+    }
 
+    /**
+     * Books the same weekly slot for several consecutive weeks in one validation pass.
+     * By default the whole series is rejected if any occurrence fails; with
+     * {@code allOrNothing=false} the free occurrences are booked and the rest reported.
+     */
+    @PostMapping("/appointments/series")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Map<String, Object>> bookAppointmentSeries(@RequestBody BookSeriesRequest req, @CurrentPatient Patient patient) {
+        if (req == null || req.counselorId == null || req.firstDate == null || req.appointmentTime == null || req.occurrences == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "counselorId, firstDate, appointmentTime and occurrences are required");
+        }
+
+        User counselor = userRepository.findById(req.counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
+        boolean allOrNothing = req.allOrNothing == null || req.allOrNothing;
+        List<SeriesOccurrence> occurrences = appointmentBookingService.bookWeeklySeries(
+                patient, counselor, req.firstDate, req.appointmentTime, req.occurrences, allOrNothing);
+
+        return occurrences.stream().map(o -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("appointmentDate", o.appointmentDate());
+            m.put("booked", o.booked());
+            if (o.booked()) {
+                m.put("appointment", appointmentResponse(o.appointment()));
+            } else {
+                m.put("error", o.error());
+            }
+            return m;
+        }).toList();
+    }
+
+    @PostMapping("/appointments/{id}/cancel")
+    public Map<String, Object> cancelAppointment(@PathVariable Long id, @CurrentPatient Patient patient) {
         Appointment ap = appointmentRepository.findById(id).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Appointment not found"));
         if (ap.getPatient() == null || ap.getPatient().getId() == null || !ap.getPatient().getId().equals(patient.getId())) {
             throw new ApiException(HttpStatus.FORBIDDEN, "Access denied");
@@ -146,6 +403,34 @@ public class PatientApiController {
         return appointmentResponse(ap);
     }
 
+    /**
+     * Joins a counselor's cancellation waitlist for a date range. When an appointment in that range
+     * is canceled the slot is booked automatically for the longest-waiting patient.
+     */
+    @PostMapping("/waitlist")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> joinWaitlist(@RequestBody WaitlistRequest req, @CurrentPatient Patient patient) {
+        if (req == null || req.counselorId == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "counselorId, fromDate and toDate are required");
+        }
+
+        User counselor = userRepository.findById(req.counselorId).orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Counselor not found"));
+        return waitlistResponse(waitlistService.join(patient, counselor, req.fromDate, req.toDate));
+    }
+
+    @GetMapping("/waitlist")
+    public List<Map<String, Object>> myWaitlist(@CurrentPatient Patient patient) {
+        return waitlistService.entriesFor(patient)
+                .stream()
+                .map(this::waitlistResponse)
+                .toList();
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public Map<String, Object> leaveWaitlist(@PathVariable Long id, @CurrentPatient Patient patient) {
+        return waitlistResponse(waitlistService.withdraw(patient, id));
+    }
+
     private Map<String, Object> moodEntryResponse(MoodEntry entry) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", entry.getId());
@@ -155,6 +440,17 @@ public class PatientApiController {
         return m;
     }
 
+    private Map<String, Object> moodBucketResponse(MoodBucket bucket) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("start", bucket.start());
+        m.put("end", bucket.end());
+        m.put("count", bucket.count());
+        m.put("min", bucket.min());
+        m.put("max", bucket.max());
+        m.put("mean", bucket.mean());
+        return m;
+    }
+
     private Map<String, Object> appointmentResponse(Appointment ap) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", ap.getId());
@@ -167,6 +463,40 @@ public class PatientApiController {
         return m;
     }
 
+    private Map<String, Object> appointmentResponse(AppointmentListing ap) {
+        Map<String, Object> counselor = new LinkedHashMap<>();
+        counselor.put("id", ap.userId());
+        counselor.put("name", ap.userName());
+        counselor.put("email", ap.userEmail());
+        counselor.put("role", ap.userRole());
+        counselor.put("specialty", ap.userSpecialty());
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", ap.id());
+        m.put("appointmentDate", ap.appointmentDate());
+        m.put("appointmentTime", ap.appointmentTime());
+        m.put("status", ap.status());
+        m.put("counselor", counselor);
+        m.put("changeVersion", ap.changeVersion());
+        return m;
+    }
+
+    private List<Map<String, Object>> changesResponse(AppointmentChangePage page, HttpServletResponse response) {
+        response.setHeader(AppointmentChangeFeed.HEADER, String.valueOf(page.watermark()));
+        return page.changes().stream()
+                .map(c -> {
+                    if (!c.isDeleted()) {
+                        return appointmentResponse(c.appointment());
+                    }
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("id", c.appointmentId());
+                    m.put("changeVersion", c.changeVersion());
+                    m.put("deleted", true);
+                    return m;
+                })
+                .toList();
+    }
+
     private Map<String, Object> availabilityResponse(Availability a) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", a.getId());
@@ -176,6 +506,28 @@ public class PatientApiController {
         return m;
     }
 
+    private Map<String, Object> openSlotResponse(OpenSlot slot) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("date", slot.date());
+        m.put("startTime", slot.startTime());
+        m.put("endTime", slot.endTime());
+        return m;
+    }
+
+    private Map<String, Object> waitlistResponse(WaitlistEntry entry) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", entry.getId());
+        m.put("fromDate", entry.getFromDate());
+        m.put("toDate", entry.getToDate());
+        m.put("status", entry.getStatus());
+        m.put("bookedAppointmentId", entry.getBookedAppointmentId());
+        m.put("createdAt", entry.getCreatedAt());
+        if (entry.getCounselor() != null) {
+            m.put("counselor", userSummary(entry.getCounselor()));
+        }
+        return m;
+    }
+
     private Map<String, Object> userSummary(User user) {
         Map<String, Object> m = new LinkedHashMap<>();
         m.put("id", user.getId());
@@ -186,15 +538,44 @@ public class PatientApiController {
         return m;
     }
 
+    private record AppointmentKey(LocalDate date, LocalTime time, long id) {
+    }
+
     public static class MoodRequest {
         public int rating;
         public String notes;
         public LocalDate entryDate;
     }
 
+    public static class MoodSyncRequest {
+        public Long since;
+        public List<MoodSyncEntry> entries;
+    }
+
+    public static class MoodSyncEntry {
+        public int rating;
+        public String notes;
+        public LocalDate entryDate;
+        public Instant clientUpdatedAt;
+    }
+
     public static class BookAppointmentRequest {
         public Long counselorId;
         public LocalDate appointmentDate;
         public LocalTime appointmentTime;
     }
+
+    public static class BookSeriesRequest {
+        public Long counselorId;
+        public LocalDate firstDate;
+        public LocalTime appointmentTime;
+        public Integer occurrences;
+        public Boolean allOrNothing;
+    }
+
+    public static class WaitlistRequest {
+        public Long counselorId;
+        public LocalDate fromDate;
+        public LocalDate toDate;
+    }
 }
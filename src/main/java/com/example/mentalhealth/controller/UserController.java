@@ -8,7 +8,7 @@ import com.example.mentalhealth.repository.PatientRepository;
 import com.example.mentalhealth.repository.ProfileChangeRepository;
 import com.example.mentalhealth.repository.UserRepository;
 import com.example.mentalhealth.service.SessionAuthService;
-import jakarta.servlet.http.HttpSession;
+import com.example.mentalhealth.web.CurrentUser;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,8 +34,11 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public Map<String, Object> getProfile(HttpSession session) {
-        User me = auth.requireLogin(session);
+    public Map<String, Object> getProfile(@CurrentUser User principal) {
+        User me = auth.withProfile(principal);
+        if (me == null) {
+            throw new ApiException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
         Map<String, Object> resp = new LinkedHashMap<>();
         resp.put("id", me.getId());
         resp.put("email", me.getEmail());
@@ -53,11 +56,18 @@ public class UserController {
     }
 
     @PutMapping("/profile")
-    public Map<String, Object> updateProfile(@RequestBody UpdateProfileRequest req, HttpSession session) {
-        User me = auth.requireLogin(session);
+    public Map<String, Object> updateProfile(@RequestBody UpdateProfileRequest req, @CurrentUser User principal) {
         if (req == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Request body is required");
         }
+        // The session principal is a cached copy without the password; edit the stored row.
+        // A patient's profile and user row come from one joined query and are reused below.
+        Patient patient = principal.getRole() == User.Role.patient
+                ? patientRepository.findWithUserByUserId(principal.getId()).orElse(null)
+                : null;
+        User me = patient != null
+                ? patient.getUser()
+                : userRepository.findById(principal.getId()).orElseThrow(() -> new ApiException(HttpStatus.UNAUTHORIZED, "Not authenticated"));
 
         boolean changed = false;
 
@@ -75,18 +85,20 @@ public class UserController {
         }
 
         if (me.getRole() == User.Role.patient && req.emergencyContact != null) {
-            Patient p = patientRepository.findByUserId(me.getId()).orElseThrow(
-                    () -> new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found"));
+            if (patient == null) {
+                throw new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found");
+            }
             String trimmed = req.emergencyContact.trim();
-            if (!trimmed.equals(p.getEmergencyContact() == null ? "" : p.getEmergencyContact())) {
-                p.setEmergencyContact(trimmed.isEmpty() ? null : trimmed);
-                patientRepository.save(p);
+            if (!trimmed.equals(patient.getEmergencyContact() == null ? "" : patient.getEmergencyContact())) {
+                patient.setEmergencyContact(trimmed.isEmpty() ? null : trimmed);
+                patient = patientRepository.save(patient);
                 changed = true;
             }
         }
 
         if (changed) {
             me = userRepository.save(me);
+            auth.evict(me.getId());
 
             ProfileChange pc = new ProfileChange();
             pc.setUser(me);
@@ -102,11 +114,8 @@ public class UserController {
         resp.put("role", me.getRole());
         resp.put("specialty", me.getSpecialty());
 
-        if (me.getRole() == User.Role.patient) {
-            Patient p = patientRepository.findByUserId(me.getId()).orElse(null);
-            if (p != null) {
-                resp.put("emergencyContact", p.getEmergencyContact());
-            }
+        if (patient != null) {
+            resp.put("emergencyContact", patient.getEmergencyContact());
         }
         return resp;
     }
@@ -1,5 +1,8 @@
 package com.example.mentalhealth.model;
 
+import com.example.mentalhealth.service.booking.AppointmentCancellationListener;
+import com.example.mentalhealth.service.booking.AppointmentChangeVersionListener;
+import com.example.mentalhealth.service.booking.AppointmentSlotIndexListener;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -7,7 +10,13 @@ import java.time.LocalTime;
 
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", uniqueConstraints = {
+        // active_slot is TRUE for live appointments and NULL once canceled; NULLs never collide,
+        // so this allows at most one non-canceled appointment per counselor, date and time.
+        @UniqueConstraint(name = "uk_appointments_active_slot",
+                columnNames = {"counselor_id", "appointment_date", "appointment_time", "active_slot"})
+})
+@EntityListeners({AppointmentChangeVersionListener.class, AppointmentSlotIndexListener.class, AppointmentCancellationListener.class})
 public class Appointment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,9 +40,21 @@ public class Appointment {
     @Column(length = 20, nullable = false)
     private String status = "scheduled";
 
+    @Column(name = "active_slot")
+    private Boolean activeSlot;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set from appointment_change_counter on every insert and update; see AppointmentChangeVersionListener.
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    // Status as last read from or written to the database; entity listeners run before the
+    // callbacks below refresh it, so they can tell which status change is being written.
+    @Transient
+    private String persistedStatus;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) {
@@ -42,6 +63,27 @@ public class Appointment {
         if (status == null || status.isBlank()) {
             status = "scheduled";
         }
+        syncActiveSlot();
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        syncActiveSlot();
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void onSynced() {
+        persistedStatus = status;
+    }
+
+    private void syncActiveSlot() {
+        activeSlot = "canceled".equals(status) ? null : Boolean.TRUE;
+    }
+
+    public String getPersistedStatus() {
+        return persistedStatus;
     }
 
     public Long getId() {
@@ -99,4 +141,12 @@ public class Appointment {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
 }
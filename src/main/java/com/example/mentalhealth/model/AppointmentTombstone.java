@@ -0,0 +1,50 @@
+package com.example.mentalhealth.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted appointment in the change feed. Written by
+ * {@code AppointmentChangeVersionListener} when the appointment is removed; the patient and
+ * counselor ids are kept without foreign keys because their accounts may be deleted with it.
+ */
+@Entity
+@Table(name = "appointment_tombstones")
+public class AppointmentTombstone {
+    @Id
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "counselor_id", nullable = false)
+    private Long counselorId;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public Long getCounselorId() {
+        return counselorId;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.mentalhealth.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "mood_entries")
+@Table(name = "mood_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_mood_entries_patient_date", columnNames = {"patient_id", "entry_date"})
+})
 public class MoodEntry {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +26,14 @@ public class MoodEntry {
     @Column(name = "entry_date", nullable = false)
     private LocalDate entryDate;
 
+    // When the client made this edit; the later edit wins when two devices sync the same day.
+    @Column(name = "client_updated_at")
+    private Instant clientUpdatedAt;
+
+    // Position in the patient's change sequence (see MoodEntryService.sync).
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion = 1;
+
     @PrePersist
     void onCreate() {
         if (entryDate == null) {
@@ -69,4 +80,20 @@ public class MoodEntry {
     public void setEntryDate(LocalDate entryDate) {
         this.entryDate = entryDate;
     }
+
+    public Instant getClientUpdatedAt() {
+        return clientUpdatedAt;
+    }
+
+    public void setClientUpdatedAt(Instant clientUpdatedAt) {
+        this.clientUpdatedAt = clientUpdatedAt;
+    }
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
 }
@@ -0,0 +1,99 @@
+package com.example.mentalhealth.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running mood summary for one patient: the latest entry and a 30-day ring of daily ratings
+ * (see {@code MoodWindow}), updated in place whenever a mood entry is written.
+ */
+@Entity
+@Table(name = "patient_mood_stats")
+public class PatientMoodStats {
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "latest_date")
+    private LocalDate latestDate;
+
+    @Column(name = "latest_rating")
+    private Integer latestRating;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDate windowEnd;
+
+    @Column(name = "daily_ratings", nullable = false, length = 30)
+    private String dailyRatings;
+
+    // Last sync version handed out to this patient's mood entries.
+    @Column(name = "sync_version", nullable = false)
+    private long syncVersion = 1;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public LocalDate getLatestDate() {
+        return latestDate;
+    }
+
+    public void setLatestDate(LocalDate latestDate) {
+        this.latestDate = latestDate;
+    }
+
+    public Integer getLatestRating() {
+        return latestRating;
+    }
+
+    public void setLatestRating(Integer latestRating) {
+        this.latestRating = latestRating;
+    }
+
+    public LocalDate getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDate windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public String getDailyRatings() {
+        return dailyRatings;
+    }
+
+    public void setDailyRatings(String dailyRatings) {
+        this.dailyRatings = dailyRatings;
+    }
+
+    public long getSyncVersion() {
+        return syncVersion;
+    }
+
+    public void setSyncVersion(long syncVersion) {
+        this.syncVersion = syncVersion;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
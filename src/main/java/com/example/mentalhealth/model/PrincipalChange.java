@@ -0,0 +1,57 @@
+package com.example.mentalhealth.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * The user's principal version was bumped to {@code version} at {@code changedAt}; principals
+ * cached at an older version are stale. Rows are only needed until those cache entries would
+ * have expired anyway.
+ */
+@Entity
+@Table(name = "principal_changes")
+public class PrincipalChange {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public PrincipalChange() {
+    }
+
+    public PrincipalChange(Long userId, long version, Instant changedAt) {
+        this.userId = userId;
+        this.version = version;
+        this.changedAt = changedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.mentalhealth.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Tokens issued to {@code userId} before {@code revokedAt} are no longer accepted. Rows are
+ * only needed until those tokens would have expired anyway.
+ */
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public TokenRevocation() {
+    }
+
+    public TokenRevocation(Long userId, Instant revokedAt) {
+        this.userId = userId;
+        this.revokedAt = revokedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One row of an appointment list, read in a single query with only the columns the list shows.
+ * The {@code user*} fields describe the other party: the patient's user in a counselor's list,
+ * the counselor in a patient's list.
+ */
+public record AppointmentListing(
+        Long id,
+        LocalDate appointmentDate,
+        LocalTime appointmentTime,
+        String status,
+        Long patientId,
+        Long userId,
+        String userName,
+        String userEmail,
+        User.Role userRole,
+        String userSpecialty,
+        long changeVersion
+) {
+}
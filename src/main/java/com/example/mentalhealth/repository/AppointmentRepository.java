@@ -3,19 +3,125 @@ package com.example.mentalhealth.repository;
 import com.example.mentalhealth.model.Appointment;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    // Keyset predicate for (date, time, id) ordering, spelled out for databases without row comparison.
+    String AFTER_KEY = "and (a.appointmentDate > :afterDate or (a.appointmentDate = :afterDate " +
+            "and (a.appointmentTime > :afterTime or (a.appointmentTime = :afterTime and a.id > :afterId)))) ";
+
     List<Appointment> findByPatientOrderByAppointmentDateAscAppointmentTimeAsc(Patient patient);
 
-    List<Appointment> findByCounselorOrderByAppointmentDateAscAppointmentTimeAsc(User counselor);
+    /**
+     * One page of a counselor's appointments in {@code [from, to]} with the patient's user fields,
+     * in one query. Rows come after the key {@code (afterDate, afterTime, afterId)}.
+     */
+    @Query("select new com.example.mentalhealth.repository.AppointmentListing(a.id, a.appointmentDate, a.appointmentTime, a.status, " +
+            "p.id, u.id, u.name, u.email, u.role, u.specialty, a.changeVersion) " +
+            "from Appointment a join a.patient p join p.user u where a.counselor.id = :counselorId " +
+            "and a.appointmentDate between :from and :to " + AFTER_KEY +
+            "order by a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentListing> findListingsForCounselor(@Param("counselorId") Long counselorId,
+                                                      @Param("from") LocalDate from,
+                                                      @Param("to") LocalDate to,
+                                                      @Param("afterDate") LocalDate afterDate,
+                                                      @Param("afterTime") LocalTime afterTime,
+                                                      @Param("afterId") long afterId,
+                                                      Limit limit);
+
+    /**
+     * One page of a patient's appointments with the counselor's fields; see {@link #findListingsForCounselor}.
+     */
+    @Query("select new com.example.mentalhealth.repository.AppointmentListing(a.id, a.appointmentDate, a.appointmentTime, a.status, " +
+            "a.patient.id, c.id, c.name, c.email, c.role, c.specialty, a.changeVersion) " +
+            "from Appointment a join a.counselor c where a.patient.id = :patientId " +
+            "and a.appointmentDate between :from and :to " + AFTER_KEY +
+            "order by a.appointmentDate, a.appointmentTime, a.id")
+    List<AppointmentListing> findListingsForPatient(@Param("patientId") Long patientId,
+                                                    @Param("from") LocalDate from,
+                                                    @Param("to") LocalDate to,
+                                                    @Param("afterDate") LocalDate afterDate,
+                                                    @Param("afterTime") LocalTime afterTime,
+                                                    @Param("afterId") long afterId,
+                                                    Limit limit);
+
+    /**
+     * A counselor's appointments changed after version {@code since} up to {@code upTo}, oldest
+     * change first; an index range scan on {@code (counselor_id, change_version)}.
+     */
+    @Query("select new com.example.mentalhealth.repository.AppointmentListing(a.id, a.appointmentDate, a.appointmentTime, a.status, " +
+            "p.id, u.id, u.name, u.email, u.role, u.specialty, a.changeVersion) " +
+            "from Appointment a join a.patient p join p.user u where a.counselor.id = :counselorId " +
+            "and a.changeVersion > :since and a.changeVersion <= :upTo order by a.changeVersion")
+    List<AppointmentListing> findChangesForCounselor(@Param("counselorId") Long counselorId, @Param("since") long since,
+                                                     @Param("upTo") long upTo, Limit limit);
+
+    @Query("select new com.example.mentalhealth.repository.AppointmentListing(a.id, a.appointmentDate, a.appointmentTime, a.status, " +
+            "a.patient.id, c.id, c.name, c.email, c.role, c.specialty, a.changeVersion) " +
+            "from Appointment a join a.counselor c where a.patient.id = :patientId " +
+            "and a.changeVersion > :since and a.changeVersion <= :upTo order by a.changeVersion")
+    List<AppointmentListing> findChangesForPatient(@Param("patientId") Long patientId, @Param("since") long since,
+                                                   @Param("upTo") long upTo, Limit limit);
+
+    /**
+     * Highest change version below every version still in flight, or the last one drawn if none
+     * is. Every version up to it has committed or rolled back. In-flight rows that started before
+     * {@code abandonedBefore} belong to writers that died and are ignored.
+     */
+    @Query(value = "SELECT COALESCE((SELECT MIN(f.version) - 1 FROM appointment_changes_in_flight f " +
+            "WHERE f.started_at > :abandonedBefore), c.version) FROM appointment_change_counter c WHERE c.id = 1",
+            nativeQuery = true)
+    long safeChangeVersion(@Param("abandonedBefore") LocalDateTime abandonedBefore);
+
+    /**
+     * Patients who have booked with the counselor (any status), ordered by their earliest appointment.
+     */
+    @Query("select new com.example.mentalhealth.repository.PatientSummary(p.id, p.emergencyContact, u.id, u.name, u.email, u.role) " +
+            "from Appointment a join a.patient p join p.user u where a.counselor.id = :counselorId " +
+            "group by p.id, p.emergencyContact, u.id, u.name, u.email, u.role " +
+            "order by min(a.appointmentDate), p.id")
+    List<PatientSummary> findPatientSummariesForCounselor(@Param("counselorId") Long counselorId);
 
     boolean existsByCounselorAndAppointmentDateAndAppointmentTimeAndStatusNot(User counselor, LocalDate appointmentDate, LocalTime appointmentTime, String status);
 
+    /**
+     * Used to warm the in-memory slot index: every non-canceled slot from the given date onwards.
+     */
+    @Query("select new com.example.mentalhealth.repository.BookedSlot(a.counselor.id, a.appointmentDate, a.appointmentTime) " +
+            "from Appointment a where a.status <> 'canceled' and a.appointmentDate >= :from")
+    List<BookedSlot> findActiveSlotsFrom(@Param("from") LocalDate from);
+
+    /**
+     * One range query per counselor for slot search, already sorted for a single merge pass.
+     */
+    @Query("select new com.example.mentalhealth.repository.BookedSlot(a.counselor.id, a.appointmentDate, a.appointmentTime) " +
+            "from Appointment a where a.counselor = :counselor and a.status <> 'canceled' " +
+            "and a.appointmentDate between :from and :to order by a.appointmentDate, a.appointmentTime")
+    List<BookedSlot> findActiveSlotsBetween(@Param("counselor") User counselor, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Whether the slot has a non-canceled appointment; confirms a hit in the per-node slot index.
+     */
+    @Query("select count(a) > 0 from Appointment a where a.counselor.id = :counselorId and a.status <> 'canceled' " +
+            "and a.appointmentDate = :date and a.appointmentTime = :time")
+    boolean existsActiveSlot(@Param("counselorId") Long counselorId, @Param("date") LocalDate date, @Param("time") LocalTime time);
+
+    @Query("select new com.example.mentalhealth.repository.BookedSlot(a.counselor.id, a.appointmentDate, a.appointmentTime) " +
+            "from Appointment a where a.counselor.id in :counselorIds and a.status <> 'canceled' " +
+            "and a.appointmentDate between :from and :to order by a.counselor.id, a.appointmentDate, a.appointmentTime")
+    List<BookedSlot> findActiveSlotsForCounselorsBetween(@Param("counselorIds") Collection<Long> counselorIds,
+                                                         @Param("from") LocalDate from,
+                                                         @Param("to") LocalDate to);
+
     /**
      * Used for authorization checks: a counselor may view details for patients who have booked with them.
      * Prefer excluding canceled appointments to avoid leaking information after cancellation.
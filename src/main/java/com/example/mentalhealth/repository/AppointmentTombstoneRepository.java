@@ -0,0 +1,21 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.AppointmentTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AppointmentTombstoneRepository extends JpaRepository<AppointmentTombstone, Long> {
+    @Query("select t from AppointmentTombstone t where t.counselorId = :counselorId and t.changeVersion > :since " +
+            "and t.changeVersion <= :upTo order by t.changeVersion")
+    List<AppointmentTombstone> findForCounselorSince(@Param("counselorId") Long counselorId, @Param("since") long since,
+                                                       @Param("upTo") long upTo, Limit limit);
+
+    @Query("select t from AppointmentTombstone t where t.patientId = :patientId and t.changeVersion > :since " +
+            "and t.changeVersion <= :upTo order by t.changeVersion")
+    List<AppointmentTombstone> findForPatientSince(@Param("patientId") Long patientId, @Param("since") long since,
+                                                     @Param("upTo") long upTo, Limit limit);
+}
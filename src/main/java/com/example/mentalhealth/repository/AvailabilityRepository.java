@@ -3,7 +3,10 @@ package com.example.mentalhealth.repository;
 import com.example.mentalhealth.model.Availability;
 import com.example.mentalhealth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface AvailabilityRepository extends JpaRepository<Availability, Long> {
@@ -11,5 +14,9 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
 
     List<Availability> findByCounselorAndDayOfWeekOrderByStartTimeAsc(User counselor, Integer dayOfWeek);
 
+    @Query("select new com.example.mentalhealth.repository.AvailabilityWindow(a.counselor.id, a.dayOfWeek, a.startTime, a.endTime) " +
+            "from Availability a where a.counselor.id in :counselorIds")
+    List<AvailabilityWindow> findWindowsByCounselorIds(@Param("counselorIds") Collection<Long> counselorIds);
+
     void deleteByCounselor(User counselor);
 }
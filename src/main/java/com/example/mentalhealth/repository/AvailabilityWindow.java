@@ -0,0 +1,15 @@
+package com.example.mentalhealth.repository;
+
+import java.time.LocalTime;
+
+/**
+ * Projection of an {@link com.example.mentalhealth.model.Availability} row without the counselor entity,
+ * used when schedules for many counselors are loaded in one query.
+ */
+public record AvailabilityWindow(
+        Long counselorId,
+        Integer dayOfWeek,
+        LocalTime startTime,
+        LocalTime endTime
+) {
+}
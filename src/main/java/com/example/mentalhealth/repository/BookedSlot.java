@@ -0,0 +1,15 @@
+package com.example.mentalhealth.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Lightweight projection of a non-canceled appointment: just enough to know which
+ * counselor slot is taken, without loading the patient/counselor graph.
+ */
+public record BookedSlot(
+        Long counselorId,
+        LocalDate appointmentDate,
+        LocalTime appointmentTime
+) {
+}
@@ -0,0 +1,6 @@
+package com.example.mentalhealth.repository;
+
+import java.time.LocalDate;
+
+public record MoodChange(Long id, LocalDate entryDate, int rating, String notes, long syncVersion) {
+}
@@ -2,16 +2,57 @@ package com.example.mentalhealth.repository;
 
 import com.example.mentalhealth.model.MoodEntry;
 import com.example.mentalhealth.model.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long> {
-    List<MoodEntry> findByPatientOrderByEntryDateAsc(Patient patient);
+public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long>, MoodEntryUpsert {
+    /**
+     * One page of a patient's entries dated after {@code after} and up to {@code to}. Entry dates
+     * are unique per patient, so the date alone is the page key.
+     */
+    @Query("select m from MoodEntry m where m.patient = :patient and m.entryDate > :after and m.entryDate <= :to " +
+            "order by m.entryDate")
+    List<MoodEntry> findPage(@Param("patient") Patient patient,
+                             @Param("after") LocalDate after,
+                             @Param("to") LocalDate to,
+                             Limit limit);
 
-    Optional<MoodEntry> findByPatientAndEntryDate(Patient patient, LocalDate entryDate);
+    @Query("select new com.example.mentalhealth.repository.MoodPoint(m.patient.id, m.entryDate, m.rating) from MoodEntry m " +
+            "where m.patient.id = :patientId and m.entryDate between :from and :to order by m.entryDate")
+    Stream<MoodPoint> streamPoints(@Param("patientId") Long patientId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select new com.example.mentalhealth.repository.MoodPoint(m.patient.id, m.entryDate, m.rating) from MoodEntry m " +
+            "where m.patient.id = :patientId order by m.entryDate")
+    Stream<MoodPoint> streamPoints(@Param("patientId") Long patientId);
+
+    @Query("select new com.example.mentalhealth.repository.MoodPoint(m.patient.id, m.entryDate, m.rating) from MoodEntry m " +
+            "where m.patient.id in :patientIds and m.entryDate between :from and :to")
+    List<MoodPoint> findPoints(@Param("patientIds") Collection<Long> patientIds, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Each patient's most recent entry.
+     */
+    @Query("select new com.example.mentalhealth.repository.MoodPoint(m.patient.id, m.entryDate, m.rating) from MoodEntry m " +
+            "where m.patient.id in :patientIds " +
+            "and m.entryDate = (select max(l.entryDate) from MoodEntry l where l.patient.id = m.patient.id)")
+    List<MoodPoint> findLatestPoints(@Param("patientIds") Collection<Long> patientIds);
+
+    /**
+     * The patient's entries changed after sync version {@code since} up to {@code upTo}, oldest
+     * change first.
+     */
+    @Query("select new com.example.mentalhealth.repository.MoodChange(m.id, m.entryDate, m.rating, m.notes, m.syncVersion) " +
+            "from MoodEntry m where m.patient.id = :patientId and m.syncVersion > :since and m.syncVersion <= :upTo " +
+            "order by m.syncVersion")
+    List<MoodChange> findChanges(@Param("patientId") Long patientId, @Param("since") long since, @Param("upTo") long upTo,
+                                 Limit limit);
 
     void deleteByPatient(Patient patient);
 }
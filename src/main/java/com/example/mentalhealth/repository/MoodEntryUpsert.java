@@ -0,0 +1,22 @@
+package com.example.mentalhealth.repository;
+
+import java.util.List;
+
+/**
+ * Native write path for {@link MoodEntryRepository}. Both methods are single statements against
+ * the {@code (patient_id, entry_date)} unique key, so concurrent writes for the same day leave
+ * exactly one row.
+ */
+public interface MoodEntryUpsert {
+    /**
+     * Inserts the patient's entry for the day, or replaces it if one exists. Returns the entry id.
+     */
+    long upsert(Long patientId, MoodEntryWrite write);
+
+    /**
+     * Applies the writes as one JDBC batch. An existing entry is only replaced if it was last
+     * edited no later than the incoming one (entries that predate sync always lose); callers
+     * tell which writes won by reading back their {@code sync_version}.
+     */
+    void upsertIfNewer(Long patientId, List<MoodEntryWrite> writes);
+}
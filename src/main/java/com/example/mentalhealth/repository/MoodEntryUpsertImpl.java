@@ -0,0 +1,79 @@
+package com.example.mentalhealth.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the upsert statements for the connected database. Runs on the JPA transaction's
+ * connection, so it commits or rolls back with the surrounding work.
+ */
+class MoodEntryUpsertImpl implements MoodEntryUpsert {
+    private static final String COLUMNS = "patient_id, entry_date, rating, notes, client_updated_at, sync_version";
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO mood_entries (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (patient_id, entry_date) DO UPDATE SET rating = EXCLUDED.rating, notes = EXCLUDED.notes, " +
+            "client_updated_at = EXCLUDED.client_updated_at, sync_version = EXCLUDED.sync_version";
+    private static final Statements POSTGRES = new Statements(
+            POSTGRES_UPSERT + " RETURNING id",
+            POSTGRES_UPSERT + " WHERE mood_entries.client_updated_at IS NULL " +
+            "OR mood_entries.client_updated_at <= EXCLUDED.client_updated_at");
+
+    private static final Statements H2 = new Statements(
+            "SELECT id FROM FINAL TABLE (MERGE INTO mood_entries (" + COLUMNS + ") " +
+            "KEY (patient_id, entry_date) VALUES (?, ?, ?, ?, ?, ?))",
+            "MERGE INTO mood_entries t USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS INTEGER), " +
+            "CAST(? AS VARCHAR), CAST(? AS TIMESTAMP(6) WITH TIME ZONE), CAST(? AS BIGINT))) " +
+            "s (" + COLUMNS + ") " +
+            "ON t.patient_id = s.patient_id AND t.entry_date = s.entry_date " +
+            "WHEN MATCHED AND (t.client_updated_at IS NULL OR t.client_updated_at <= s.client_updated_at) THEN " +
+            "UPDATE SET rating = s.rating, notes = s.notes, client_updated_at = s.client_updated_at, sync_version = s.sync_version " +
+            "WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ") " +
+            "VALUES (s.patient_id, s.entry_date, s.rating, s.notes, s.client_updated_at, s.sync_version)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Statements statements;
+
+    MoodEntryUpsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        this.statements = switch (product) {
+            case "PostgreSQL" -> POSTGRES;
+            case "H2" -> H2;
+            default -> throw new IllegalStateException("No mood upsert statements for " + product);
+        };
+    }
+
+    @Override
+    public long upsert(Long patientId, MoodEntryWrite write) {
+        return jdbcTemplate.queryForObject(statements.upsert(), Long.class, params(patientId, write));
+    }
+
+    @Override
+    public void upsertIfNewer(Long patientId, List<MoodEntryWrite> writes) {
+        List<Object[]> batch = new ArrayList<>(writes.size());
+        for (MoodEntryWrite write : writes) {
+            batch.add(params(patientId, write));
+        }
+        jdbcTemplate.batchUpdate(statements.upsertIfNewer(), batch);
+    }
+
+    private static Object[] params(Long patientId, MoodEntryWrite write) {
+        return new Object[]{
+                patientId,
+                write.entryDate(),
+                write.rating(),
+                write.notes(),
+                write.clientUpdatedAt() == null ? null : OffsetDateTime.ofInstant(write.clientUpdatedAt(), ZoneOffset.UTC),
+                write.syncVersion()
+        };
+    }
+
+    private record Statements(String upsert, String upsertIfNewer) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.mentalhealth.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One mood entry to store. {@code clientUpdatedAt} decides last-writer-wins conflicts;
+ * {@code syncVersion} is the entry's place in the patient's change sequence.
+ */
+public record MoodEntryWrite(LocalDate entryDate, int rating, String notes, Instant clientUpdatedAt, long syncVersion) {
+}
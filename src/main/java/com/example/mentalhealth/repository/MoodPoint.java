@@ -0,0 +1,13 @@
+package com.example.mentalhealth.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A mood rating and its date, without the entry's notes; the input for trend aggregation.
+ */
+public record MoodPoint(
+        Long patientId,
+        LocalDate entryDate,
+        int rating
+) {
+}
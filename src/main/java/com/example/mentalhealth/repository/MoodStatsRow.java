@@ -0,0 +1,16 @@
+package com.example.mentalhealth.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A patient id with its mood stats columns; the stats fields are null when the patient has
+ * no {@code patient_mood_stats} row yet.
+ */
+public record MoodStatsRow(
+        Long patientId,
+        LocalDate latestDate,
+        Integer latestRating,
+        LocalDate windowEnd,
+        String dailyRatings
+) {
+}
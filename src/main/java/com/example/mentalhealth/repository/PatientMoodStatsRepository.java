@@ -0,0 +1,31 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.PatientMoodStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PatientMoodStatsRepository extends JpaRepository<PatientMoodStats, Long> {
+    /**
+     * Locks the row so concurrent mood writes for the same patient apply one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from PatientMoodStats s where s.patientId = :patientId")
+    Optional<PatientMoodStats> findForUpdate(@Param("patientId") Long patientId);
+
+    /**
+     * Every patient in a counselor's working set (assigned or booked with them) together with
+     * their stats, in one query.
+     */
+    @Query("select new com.example.mentalhealth.repository.MoodStatsRow(p.id, s.latestDate, s.latestRating, s.windowEnd, s.dailyRatings) " +
+            "from Patient p left join PatientMoodStats s on s.patientId = p.id " +
+            "where p.assignedCounselor.id = :counselorId " +
+            "or exists (select a.id from Appointment a where a.patient.id = p.id and a.counselor.id = :counselorId) " +
+            "order by p.id")
+    List<MoodStatsRow> findRowsForCounselor(@Param("counselorId") Long counselorId);
+}
@@ -3,6 +3,8 @@ package com.example.mentalhealth.repository;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,5 +12,16 @@ import java.util.Optional;
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByUserId(Long userId);
 
+    /**
+     * The patient together with its user and assigned counselor in one statement, used to
+     * authenticate and resolve the current patient at once.
+     */
+    @Query("select p from Patient p join fetch p.user u left join fetch p.assignedCounselor where u.id = :userId")
+    Optional<Patient> findWithUserByUserId(@Param("userId") Long userId);
+
     List<Patient> findByAssignedCounselor(User counselor);
+
+    @Query("select new com.example.mentalhealth.repository.PatientSummary(p.id, p.emergencyContact, u.id, u.name, u.email, u.role) " +
+            "from Patient p join p.user u where p.assignedCounselor.id = :counselorId order by p.id")
+    List<PatientSummary> findSummariesByAssignedCounselorId(@Param("counselorId") Long counselorId);
 }
@@ -0,0 +1,16 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.User;
+
+/**
+ * A patient and the user fields shown in a counselor's patient list, without loading entities.
+ */
+public record PatientSummary(
+        Long id,
+        String emergencyContact,
+        Long userId,
+        String userName,
+        String userEmail,
+        User.Role userRole
+) {
+}
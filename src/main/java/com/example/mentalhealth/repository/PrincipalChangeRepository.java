@@ -0,0 +1,20 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.PrincipalChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface PrincipalChangeRepository extends JpaRepository<PrincipalChange, Long> {
+    List<PrincipalChange> findByChangedAtAfter(Instant cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PrincipalChange c where c.changedAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
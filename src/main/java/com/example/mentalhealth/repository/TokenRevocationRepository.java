@@ -0,0 +1,20 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByRevokedAtAfter(Instant cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("delete from TokenRevocation r where r.revokedAt < :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
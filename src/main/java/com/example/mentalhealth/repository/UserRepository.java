@@ -1,7 +1,12 @@
 package com.example.mentalhealth.repository;
 
 import com.example.mentalhealth.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +15,46 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     List<User> findByRole(User.Role role);
+
+    /**
+     * One page of users in id order after {@code afterId}; {@code role} and {@code active} are
+     * optional filters.
+     */
+    @Query("select u from User u where u.id > :afterId " +
+            "and (:role is null or u.role = :role) and (:active is null or u.active = :active) order by u.id")
+    List<User> findPage(@Param("afterId") long afterId,
+                        @Param("role") User.Role role,
+                        @Param("active") Boolean active,
+                        Limit limit);
+
+    /**
+     * Ids of active users with {@code role} in id order; {@code specialty} optionally keeps only
+     * those whose specialty contains it, ignoring case.
+     */
+    @Query("select u.id from User u where u.role = :role and u.active = true " +
+            "and (:specialty is null or lower(u.specialty) like concat('%', lower(:specialty), '%')) order by u.id")
+    List<Long> findActiveIds(@Param("role") User.Role role, @Param("specialty") String specialty);
+
+    /**
+     * Replaces the password hash only if it is still {@code expected}, so a background rehash
+     * cannot overwrite a password changed in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :replacement where u.id = :id and u.password = :expected")
+    int replacePasswordHash(@Param("id") Long id, @Param("expected") String expected, @Param("replacement") String replacement);
+
+    /**
+     * Marks cached principals of the user stale on every node; see {@code SessionAuthService}.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET principal_version = principal_version + 1 WHERE id = :id", nativeQuery = true)
+    int bumpPrincipalVersion(@Param("id") Long id);
+
+    /**
+     * The user's principal version, or {@code null} if the user no longer exists.
+     */
+    @Query(value = "SELECT principal_version FROM users WHERE id = :id", nativeQuery = true)
+    Long findPrincipalVersion(@Param("id") Long id);
 }
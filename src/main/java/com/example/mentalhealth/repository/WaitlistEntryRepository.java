@@ -0,0 +1,41 @@
+package com.example.mentalhealth.repository;
+
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    List<WaitlistEntry> findByPatientOrderByCreatedAtDesc(Patient patient);
+
+    Optional<WaitlistEntry> findFirstByPatientAndCounselorAndStatus(Patient patient, User counselor, String status);
+
+    /**
+     * Active patients still waiting for this counselor whose range covers the date, first come
+     * first served.
+     */
+    @Query("select w from WaitlistEntry w where w.counselor.id = :counselorId and w.status = 'waiting' " +
+            "and w.fromDate <= :date and w.toDate >= :date and w.patient.user.active = true " +
+            "order by w.createdAt asc, w.id asc")
+    List<WaitlistEntry> findWaitingFor(@Param("counselorId") Long counselorId, @Param("date") LocalDate date);
+
+    /**
+     * Marks waiting entries whose range ended before {@code today} as expired.
+     */
+    @Modifying
+    @Transactional
+    @Query("update WaitlistEntry w set w.status = 'expired' where w.status = 'waiting' and w.toDate < :today")
+    int expireEndedBefore(@Param("today") LocalDate today);
+
+    void deleteByPatient(Patient patient);
+
+    void deleteByCounselor(User counselor);
+}
@@ -0,0 +1,209 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.model.TokenRevocation;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.TokenRevocationRepository;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signed tokens for {@code mindcare.auth.mode=token}, where any node can authenticate a request
+ * without shared session state.
+ *
+ * A token is {@code base64url(payload).base64url(HMAC-SHA256(payload))} with the payload
+ * {@code v2.<userId>.<role>.<issuedAt>.<expiresAt>} (epoch milliseconds). It is sent as the
+ * {@value #COOKIE_NAME} cookie or an {@code Authorization: Bearer} header.
+ *
+ * Revocations (deactivation, role change, deletion) are written to {@code token_revocations}
+ * and every node reloads the rows younger than the token lifetime every few seconds; older rows
+ * are dropped because the tokens they cover have expired. A token is rejected only if it was
+ * issued no later than its user's latest revocation, compared to the millisecond, so a user
+ * reactivated right after a revocation can sign in again at once.
+ */
+@Service
+public class AuthTokenService {
+    public static final String COOKIE_NAME = "MINDCARE_TOKEN";
+    private static final String VERSION = "v2";
+    private static final String BEARER = "Bearer ";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final boolean secureCookie;
+    private final TokenRevocationRepository revocationRepository;
+    private final Map<Long, Instant> revokedAt = new ConcurrentHashMap<>();
+
+    public AuthTokenService(@Value("${mindcare.auth.mode:session}") String mode,
+                            @Value("${mindcare.auth.token.secret:}") String secret,
+                            @Value("${mindcare.auth.token.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${mindcare.auth.token.cookie-secure:false}") boolean secureCookie,
+                            TokenRevocationRepository revocationRepository) {
+        String normalizedMode = mode == null ? "session" : mode.trim().toLowerCase();
+        if (!normalizedMode.equals("session") && !normalizedMode.equals("token")) {
+            throw new IllegalStateException("mindcare.auth.mode must be 'session' or 'token'");
+        }
+        this.enabled = normalizedMode.equals("token");
+        byte[] secretBytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (enabled && secretBytes.length < 32) {
+            throw new IllegalStateException("mindcare.auth.token.secret must be at least 32 bytes in token mode");
+        }
+        this.key = enabled ? new SecretKeySpec(secretBytes, "HmacSHA256") : null;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.secureCookie = secureCookie;
+        this.revocationRepository = revocationRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String issue(User user) {
+        long now = Instant.now().toEpochMilli();
+        String payload = VERSION + "." + user.getId() + "." + user.getRole() + "." + now + "." + (now + ttl.toMillis());
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * The claims of a valid, unexpired and unrevoked token; {@code null} otherwise.
+     */
+    public TokenClaims verify(String token) {
+        if (!enabled || token == null || token.isBlank()) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return null;
+        }
+
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\.");
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            return null;
+        }
+        TokenClaims claims;
+        try {
+            claims = new TokenClaims(
+                    Long.parseLong(parts[1]),
+                    User.Role.valueOf(parts[2]),
+                    Instant.ofEpochMilli(Long.parseLong(parts[3])),
+                    Instant.ofEpochMilli(Long.parseLong(parts[4])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!claims.expiresAt().isAfter(Instant.now())) {
+            return null;
+        }
+        Instant revoked = revokedAt.get(claims.userId());
+        if (revoked != null && !claims.issuedAt().isAfter(revoked)) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Invalidates every token issued to the user so far, on this node at once and on the others
+     * at their next revocation poll.
+     */
+    public void revoke(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        // Tokens carry millisecond issue times; one issued in this same millisecond is still revoked.
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        revokedAt.merge(userId, now, (a, b) -> a.isAfter(b) ? a : b);
+        revocationRepository.save(new TokenRevocation(userId, now));
+    }
+
+    @Scheduled(fixedDelayString = "${mindcare.auth.token.revocation-poll-ms:5000}")
+    public void refreshRevocations() {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(ttl);
+        for (TokenRevocation r : revocationRepository.findByRevokedAtAfter(cutoff)) {
+            revokedAt.merge(r.getUserId(), r.getRevokedAt(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        revokedAt.values().removeIf(at -> at.isBefore(cutoff));
+        revocationRepository.deleteExpired(cutoff);
+    }
+
+    public String extract(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            return header.substring(BEARER.length()).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    public void writeCookie(HttpServletResponse response, String token) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(token, ttl).toString());
+    }
+
+    public void clearCookie(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    public record TokenClaims(Long userId, User.Role role, Instant issuedAt, Instant expiresAt) {
+    }
+}
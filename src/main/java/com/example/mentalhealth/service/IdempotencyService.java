@@ -0,0 +1,104 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a write for repeats carrying the same {@code Idempotency-Key}.
+ *
+ * Entries are scoped to the user and endpoint, bounded in number and expire after
+ * {@code mindcare.idempotency.ttl-minutes}. A duplicate arriving while the first request is
+ * still running waits for its outcome instead of running the action again. Only successful
+ * responses are kept; once a failed request finishes, the same key can be retried.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyService(@Value("${mindcare.idempotency.ttl-minutes:10}") long ttlMinutes,
+                              @Value("${mindcare.idempotency.max-entries:10000}") long maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    /**
+     * Runs {@code action} once per key. {@code fingerprint} describes the request body; reusing a
+     * key for a different request is rejected with 422. Without a key the action simply runs.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long userId, String scope, String key, String fingerprint, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = userId + ":" + scope + ":" + key;
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new ApiException(HttpStatus.UNPROCESSABLE_CONTENT, HEADER + " was already used for a different request");
+            }
+            return (T) await(existing.response());
+        }
+
+        Throwable failure = null;
+        try {
+            T response = action.get();
+            mine.response().complete(response);
+            return response;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Also reached for Errors, so waiting duplicates never hang until their timeout.
+            if (!mine.response().isDone()) {
+                entries.asMap().remove(cacheKey, mine);
+                mine.response().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> response) {
+        try {
+            return response.get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ApiException(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the original request");
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<Object> response) {
+    }
+}
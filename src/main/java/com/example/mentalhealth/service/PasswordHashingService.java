@@ -0,0 +1,221 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on a dedicated pool (one thread per core by default) so login bursts cannot
+ * occupy every servlet thread. Work beyond the pool waits in a bounded queue; when the queue
+ * is full, or a hash is not finished within {@code mindcare.security.hash-timeout-ms}, the
+ * request fails fast with 503.
+ *
+ * Exported meters: {@code mindcare.auth.hash.queue} (queued tasks),
+ * {@code mindcare.auth.hash.duration} (queue wait plus hashing, tagged by operation) and
+ * {@code mindcare.auth.hash.rejections}.
+ *
+ * Hashes whose cost differs from {@code mindcare.security.bcrypt-strength} are re-encoded after a
+ * successful login, so the stored cost follows the configuration over time. Rehashing runs on its
+ * own single low-priority thread and is dropped rather than queued, so it never takes capacity
+ * from sign-ins.
+ */
+@Service
+public class PasswordHashingService {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final UserRepository userRepository;
+    private final int strength;
+    private final Set<Long> rehashing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor rehashExecutor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejections;
+    private final Counter rehashes;
+    // Compared against when the account does not exist, so unknown emails cost a full BCrypt check.
+    // One per cost, used at the cost of the last stored hash checked: while hashes are migrating
+    // to a new strength, most accounts still have the old cost and unknown emails must match it.
+    private final Map<Integer, String> dummyHashes = new ConcurrentHashMap<>();
+    private volatile int storedCost;
+
+    public PasswordHashingService(BCryptPasswordEncoder encoder,
+                                  UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${mindcare.security.bcrypt-strength:10}") int strength,
+                                  @Value("${mindcare.security.hash-threads:0}") int threads,
+                                  @Value("${mindcare.security.hash-queue-capacity:64}") int queueCapacity,
+                                  @Value("${mindcare.security.hash-timeout-ms:5000}") long timeoutMillis) {
+        this.encoder = encoder;
+        this.userRepository = userRepository;
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // No queue: a rehash submitted while the previous one is still running is rejected.
+        this.rehashExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "password-rehash");
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("mindcare.auth.hash.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("mindcare.auth.hash.duration")
+                .description("Queue wait plus BCrypt time")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("mindcare.auth.hash.duration")
+                .description("Queue wait plus BCrypt time")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("mindcare.auth.hash.rejections")
+                .description("Password hashing requests refused because the pool was saturated")
+                .register(meterRegistry);
+        this.rehashes = Counter.builder("mindcare.auth.hash.rehashes")
+                .description("Stored hashes re-encoded at the configured cost")
+                .register(meterRegistry);
+
+        this.storedCost = strength;
+        dummyHashes.put(strength, encoder.encode(UUID.randomUUID().toString()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        rehashExecutor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a password against a stored hash. A {@code null} hash (unknown account) is checked
+     * against a dummy hash at the cost of the last stored hash checked and always fails, taking as
+     * long as a real check.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            run(matchTimer, () -> encoder.matches(rawPassword, dummyHash()));
+            return false;
+        }
+        int cost = costOf(encodedPassword);
+        if (cost > 0) {
+            storedCost = cost;
+        }
+        return run(matchTimer, () -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * After a successful login, re-encodes a hash whose cost differs from the configured one.
+     * Runs on the rehash thread without blocking the caller and is skipped while sign-ins are
+     * queued or another rehash is running; the next login tries again.
+     */
+    public void rehashIfNeeded(Long userId, String rawPassword, String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        if (cost < 0 || cost == strength || !executor.getQueue().isEmpty() || !rehashing.add(userId)) {
+            return;
+        }
+        try {
+            rehashExecutor.execute(() -> {
+                try {
+                    if (userRepository.replacePasswordHash(userId, encodedPassword, encoder.encode(rawPassword)) > 0) {
+                        rehashes.increment();
+                    }
+                } finally {
+                    rehashing.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rehashing.remove(userId);
+        }
+    }
+
+    // Hashed on first use of a cost; runs on the hashing pool as part of the caller's check.
+    String dummyHash() {
+        return dummyHashes.computeIfAbsent(storedCost,
+                c -> new BCryptPasswordEncoder(c).encode(UUID.randomUUID().toString()));
+    }
+
+    /**
+     * The cost factor of a BCrypt hash, or -1 if it is not one.
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in attempts, please retry shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-in attempts, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while checking credentials");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
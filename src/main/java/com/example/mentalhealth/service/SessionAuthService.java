@@ -1,28 +1,214 @@
 package com.example.mentalhealth.service;
 
 import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.PrincipalChange;
 import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.PatientRepository;
+import com.example.mentalhealth.repository.PrincipalChangeRepository;
 import com.example.mentalhealth.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Resolves the logged-in user from the session, or with {@code mindcare.auth.mode=token} from
+ * a signed token on the current request (see {@link AuthTokenService}); controllers use the
+ * same methods in both modes. A token is authenticated from its verified claims and the polled
+ * revocation list alone, so the user it returns carries only id, role and the active flag;
+ * use {@link #withProfile(User)} where profile fields are shown.
+ *
+ * The fields needed for authorization are cached per user id (bounded, expiring after
+ * {@code mindcare.auth.principal-cache.ttl-seconds}), so a cache hit costs no query. Anything
+ * that changes a user's role, status or profile must call {@link #evict(Long)}: it drops the
+ * entry on this node at once and bumps the user's {@code principal_version}, recorded in
+ * {@code principal_changes}. Every node polls that table every few seconds and drops entries
+ * cached at an older version, so the change reaches the other nodes within one poll.
+ * The returned {@link User} is a detached copy without the password hash; reload the entity
+ * before saving changes to it.
+ */
 @Service
 public class SessionAuthService {
     public static final String SESSION_USER_ID = "USER_ID";
 
     private final UserRepository userRepository;
+    private final PatientRepository patientRepository;
+    private final PrincipalChangeRepository changeRepository;
+    private final AuthTokenService tokens;
+    private final Cache<Long, Principal> principals;
+    private final Duration changeWindow;
 
-    public SessionAuthService(UserRepository userRepository) {
+    public SessionAuthService(UserRepository userRepository,
+                              PatientRepository patientRepository,
+                              PrincipalChangeRepository changeRepository,
+                              AuthTokenService tokens,
+                              MeterRegistry meterRegistry,
+                              @Value("${mindcare.auth.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${mindcare.auth.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${mindcare.auth.principal-cache.poll-ms:5000}") long pollMillis) {
         this.userRepository = userRepository;
+        this.patientRepository = patientRepository;
+        this.changeRepository = changeRepository;
+        this.tokens = tokens;
+        // An entry loaded just before a change committed can be cached after the poll that saw
+        // the change; it is caught by a later poll as long as the change stays in the window.
+        this.changeWindow = Duration.ofSeconds(ttlSeconds).plusMillis(pollMillis);
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
     }
 
     public User getCurrentUser(HttpSession session) {
-        Object id = session.getAttribute(SESSION_USER_ID);
-        if (!(id instanceof Long userId)) {
+        if (tokens.isEnabled()) {
+            // Deactivation, role change and deletion revoke the user's tokens, so an accepted
+            // token's claims are current.
+            AuthTokenService.TokenClaims claims = currentClaims();
+            if (claims == null) {
+                return null;
+            }
+            User user = new User();
+            user.setId(claims.userId());
+            user.setRole(claims.role());
+            user.setActive(true);
+            return user;
+        }
+
+        Long userId = sessionUserId(session);
+        if (userId == null) {
+            return null;
+        }
+        Principal principal = principal(userId);
+        return principal == null ? null : principal.toUser();
+    }
+
+    /**
+     * The current user with its profile fields (email, name, specialty, creation time). Session
+     * principals already carry them; a token user is completed from its row, or {@code null} if
+     * the row is gone.
+     */
+    public User withProfile(User user) {
+        if (user == null || !tokens.isEnabled()) {
+            return user;
+        }
+        Principal principal = principal(user.getId());
+        return principal == null ? null : principal.toUser();
+    }
+
+    // On a miss the version is read before the row: a change committed in between leaves the
+    // entry labelled with the older version, so the next poll drops it rather than keeping it.
+    private Principal principal(Long userId) {
+        Principal cached = principals.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Long version = userRepository.findPrincipalVersion(userId);
+        if (version == null) {
+            return null;
+        }
+        Principal loaded = userRepository.findById(userId).map(user -> Principal.of(user, version)).orElse(null);
+        if (loaded != null) {
+            principals.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops principals cached at a version older than one recorded by any node, and forgets
+     * changes older than any entry that could predate them.
+     */
+    @Scheduled(fixedDelayString = "${mindcare.auth.principal-cache.poll-ms:5000}",
+            initialDelayString = "${mindcare.auth.principal-cache.poll-ms:5000}")
+    public void refreshPrincipalChanges() {
+        Instant cutoff = Instant.now().minus(changeWindow);
+        for (PrincipalChange change : changeRepository.findByChangedAtAfter(cutoff)) {
+            Principal cached = principals.getIfPresent(change.getUserId());
+            if (cached != null && cached.version() < change.getVersion()) {
+                principals.invalidate(change.getUserId());
+            }
+        }
+        changeRepository.deleteExpired(cutoff);
+    }
+
+    /**
+     * Marks the user as logged in: stores the id in the session, or in token mode issues a token,
+     * sets it as a cookie on the current response and returns it for header-based clients.
+     */
+    public String signIn(HttpSession session, User user) {
+        if (!tokens.isEnabled()) {
+            session.setAttribute(SESSION_USER_ID, user.getId());
             return null;
         }
-        return userRepository.findById(userId).orElse(null);
+        String token = tokens.issue(user);
+        HttpServletResponse response = currentResponse();
+        if (response != null) {
+            tokens.writeCookie(response, token);
+        }
+        return token;
+    }
+
+    public void signOut(HttpSession session) {
+        if (session != null) {
+            session.invalidate();
+        }
+        if (tokens.isEnabled()) {
+            HttpServletResponse response = currentResponse();
+            if (response != null) {
+                tokens.clearCookie(response);
+            }
+        }
+    }
+
+    /**
+     * Ends every existing login of the user. In session mode the active/role checks on each
+     * request already do this once the principal is evicted; in token mode outstanding tokens
+     * are revoked.
+     */
+    public void revokeLogins(Long userId) {
+        evict(userId);
+        tokens.revoke(userId);
+    }
+
+    /**
+     * Bumps the user's principal version and records it for the other nodes' polls, and drops the
+     * local entry now and again once the current transaction completes, so a request racing with
+     * the change cannot re-cache the old row. Call it before deleting the user.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        userRepository.bumpPrincipalVersion(userId);
+        Long version = userRepository.findPrincipalVersion(userId);
+        if (version != null) {
+            changeRepository.save(new PrincipalChange(userId, version, Instant.now()));
+        }
+        principals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(userId);
+                }
+            });
+        }
     }
 
     public User requireLogin(HttpSession session) {
@@ -45,7 +231,10 @@ public class SessionAuthService {
     }
 
     public User requireAnyRole(HttpSession session, User.Role... roles) {
-        User user = requireLogin(session);
+        return requireAnyRole(requireLogin(session), roles);
+    }
+
+    public User requireAnyRole(User user, User.Role... roles) {
         if (roles == null || roles.length == 0) {
             return user;
         }
@@ -56,4 +245,81 @@ public class SessionAuthService {
         }
         throw new ApiException(HttpStatus.FORBIDDEN, "Access denied");
     }
+
+    /**
+     * The logged-in patient's profile, checked against a freshly loaded user row: one joined
+     * query authenticates and resolves the patient.
+     */
+    public Patient requirePatient(HttpSession session) {
+        Long userId;
+        if (tokens.isEnabled()) {
+            AuthTokenService.TokenClaims claims = currentClaims();
+            userId = claims == null ? null : claims.userId();
+        } else {
+            userId = sessionUserId(session);
+        }
+        if (userId == null) {
+            throw new ApiException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        Patient patient = patientRepository.findWithUserByUserId(userId).orElse(null);
+        if (patient == null) {
+            // Unknown, non-patient or profile-less user: report whichever applies.
+            requireRole(session, User.Role.patient);
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found");
+        }
+        User user = patient.getUser();
+        if (!user.isActive()) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Account is deactivated");
+        }
+        if (user.getRole() != User.Role.patient) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+        return patient;
+    }
+
+    private static Long sessionUserId(HttpSession session) {
+        Object id = session == null ? null : session.getAttribute(SESSION_USER_ID);
+        return id instanceof Long userId ? userId : null;
+    }
+
+    private AuthTokenService.TokenClaims currentClaims() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return tokens.verify(tokens.extract(attributes.getRequest()));
+        }
+        return null;
+    }
+
+    private static HttpServletResponse currentResponse() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getResponse();
+        }
+        return null;
+    }
+
+    private record Principal(long version,
+                             Long id,
+                             String email,
+                             String name,
+                             String specialty,
+                             User.Role role,
+                             boolean active,
+                             LocalDateTime createdAt) {
+        static Principal of(User user, long version) {
+            return new Principal(version, user.getId(), user.getEmail(), user.getName(), user.getSpecialty(),
+                    user.getRole(), user.isActive(), user.getCreatedAt());
+        }
+
+        // A fresh copy per call, so callers may modify it without affecting the cache.
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setEmail(email);
+            user.setName(name);
+            user.setSpecialty(specialty);
+            user.setRole(role);
+            user.setActive(active);
+            user.setCreatedAt(createdAt);
+            return user;
+        }
+    }
 }
@@ -1,5 +1,35 @@
 package com.example.mentalhealth.service.booking;
 
+import com.example.mentalhealth.exception.ApiException;
+
+import java.util.List;
+import java.util.Set;
+
 public interface AppointmentBookingRule {
-    void validate(AppointmentBookingRequest request);
+    void validate(AppointmentBookingRequest request, BookingContext context);
+
+    /**
+     * Validates several requests for the same counselor against one shared context, recording
+     * rejections instead of throwing. Requests already rejected by an earlier rule are skipped.
+     * Rules whose outcome does not depend on the date or time can override this to check once.
+     */
+    default void validateBatch(List<AppointmentBookingRequest> requests, BookingContext context, BookingRejections rejections) {
+        for (int i = 0; i < requests.size(); i++) {
+            if (rejections.isRejected(i)) {
+                continue;
+            }
+            try {
+                validate(requests.get(i), context);
+            } catch (ApiException e) {
+                rejections.reject(i, e);
+            }
+        }
+    }
+
+    /**
+     * Data this rule reads from the context; anything not declared here may be missing.
+     */
+    default Set<BookingDataRequirement> requirements() {
+        return Set.of();
+    }
 }
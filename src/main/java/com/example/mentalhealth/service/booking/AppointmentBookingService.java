@@ -5,21 +5,41 @@ import com.example.mentalhealth.model.Appointment;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
 import com.example.mentalhealth.repository.AppointmentRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class AppointmentBookingService {
+    static final int MAX_SERIES_OCCURRENCES = 26;
+    static final String SLOT_TAKEN = "Time slot already booked";
+    private static final String ACTIVE_SLOT_CONSTRAINT = "uk_appointments_active_slot";
+
     private final AppointmentRepository appointmentRepository;
-    private final List<AppointmentBookingRule> rules;
+    private final BookingRulePipeline rulePipeline;
+    private final CounselorBookingLocks locks;
+    private final SlotHoldRegistry slotHolds;
+    private final TransactionTemplate transactionTemplate;
 
-    public AppointmentBookingService(AppointmentRepository appointmentRepository, List<AppointmentBookingRule> rules) {
+    public AppointmentBookingService(AppointmentRepository appointmentRepository,
+                                     BookingRulePipeline rulePipeline,
+                                     CounselorBookingLocks locks,
+                                     SlotHoldRegistry slotHolds,
+                                     PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
-        this.rules = rules;
+        this.rulePipeline = rulePipeline;
+        this.locks = locks;
+        this.slotHolds = slotHolds;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Appointment bookAppointment(Patient patient, User counselor, LocalDate appointmentDate, LocalTime appointmentTime) {
@@ -32,19 +52,188 @@ public class AppointmentBookingService {
         if (appointmentDate == null || appointmentTime == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "appointmentDate and appointmentTime are required");
         }
+        requireWholeMinute(appointmentTime);
 
         AppointmentBookingRequest request = new AppointmentBookingRequest(patient, counselor, appointmentDate, appointmentTime);
-        for (AppointmentBookingRule rule : rules) {
-            rule.validate(request);
+
+        // Rules and insert run under the counselor's lock and inside one transaction, and the lock
+        // is held until commit, so a second booking for the same slot always sees the first one.
+        // The unique active-slot constraint remains the final authority across application nodes.
+        ReentrantLock lock = locks.lockFor(counselor.getId());
+        lock.lock();
+        try {
+            Appointment saved = transactionTemplate.execute(tx -> {
+                rulePipeline.validate(request);
+                return appointmentRepository.saveAndFlush(newAppointment(request));
+            });
+            slotHolds.consume(patient.getId(), counselor.getId(), appointmentDate, appointmentTime);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw slotConflictOr(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds a slot for the patient while they confirm. The slot must pass the same rules as a
+     * booking, so a hold is never handed out for a slot that could not be booked.
+     */
+    public SlotHoldRegistry.SlotHold holdSlot(Patient patient, User counselor, LocalDate appointmentDate, LocalTime appointmentTime) {
+        if (patient == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found");
+        }
+        if (counselor == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Counselor not found");
+        }
+        if (appointmentDate == null || appointmentTime == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "appointmentDate and appointmentTime are required");
         }
+        requireWholeMinute(appointmentTime);
+
+        rulePipeline.validate(new AppointmentBookingRequest(patient, counselor, appointmentDate, appointmentTime));
+        return slotHolds.hold(patient.getId(), counselor.getId(), appointmentDate, appointmentTime);
+    }
+
+    public boolean releaseHold(Patient patient, String holdId) {
+        return patient != null && slotHolds.release(holdId, patient.getId());
+    }
 
+    /**
+     * Books the same weekly time for {@code occurrences} consecutive weeks starting at {@code firstDate}.
+     *
+     * All occurrences are validated together against one prefetched context (one schedule lookup and
+     * one booked-slot range query). With {@code allOrNothing} any rejected occurrence fails the whole
+     * series, which is inserted in one transaction. Otherwise each accepted occurrence is inserted in
+     * its own transaction and every rejection is reported per occurrence; if none could be booked
+     * the call fails with 409.
+     */
+    public List<SeriesOccurrence> bookWeeklySeries(Patient patient,
+                                                   User counselor,
+                                                   LocalDate firstDate,
+                                                   LocalTime appointmentTime,
+                                                   int occurrences,
+                                                   boolean allOrNothing) {
+        if (patient == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found");
+        }
+        if (counselor == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Counselor not found");
+        }
+        if (firstDate == null || appointmentTime == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "firstDate and appointmentTime are required");
+        }
+        requireWholeMinute(appointmentTime);
+        if (occurrences < 1 || occurrences > MAX_SERIES_OCCURRENCES) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "occurrences must be between 1 and " + MAX_SERIES_OCCURRENCES);
+        }
+
+        List<AppointmentBookingRequest> requests = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            requests.add(new AppointmentBookingRequest(patient, counselor, firstDate.plusWeeks(i), appointmentTime));
+        }
+        LocalDate lastDate = requests.get(occurrences - 1).appointmentDate();
+
+        ReentrantLock lock = locks.lockFor(counselor.getId());
+        lock.lock();
+        try {
+            if (allOrNothing) {
+                return transactionTemplate.execute(tx -> {
+                    BookingRejections rejections = validateSeries(requests, counselor, firstDate, lastDate);
+                    for (int i = 0; i < requests.size(); i++) {
+                        if (rejections.isRejected(i)) {
+                            throw new ApiException(rejections.get(i).getStatus(),
+                                    requests.get(i).appointmentDate() + ": " + rejections.get(i).getMessage());
+                        }
+                    }
+                    List<Appointment> saved = appointmentRepository.saveAllAndFlush(
+                            requests.stream().map(this::newAppointment).toList());
+                    List<SeriesOccurrence> result = new ArrayList<>(requests.size());
+                    for (int i = 0; i < requests.size(); i++) {
+                        result.add(new SeriesOccurrence(requests.get(i).appointmentDate(), saved.get(i), null));
+                    }
+                    return result;
+                });
+            }
+
+            // Each accepted occurrence commits on its own, so a constraint violation on one
+            // (a booking from another node) rejects only that occurrence.
+            BookingRejections rejections = transactionTemplate.execute(tx -> validateSeries(requests, counselor, firstDate, lastDate));
+            List<SeriesOccurrence> result = new ArrayList<>(requests.size());
+            boolean anyBooked = false;
+            for (int i = 0; i < requests.size(); i++) {
+                AppointmentBookingRequest request = requests.get(i);
+                if (rejections.isRejected(i)) {
+                    result.add(new SeriesOccurrence(request.appointmentDate(), null, rejections.get(i).getMessage()));
+                    continue;
+                }
+                try {
+                    Appointment saved = transactionTemplate.execute(tx -> appointmentRepository.saveAndFlush(newAppointment(request)));
+                    result.add(new SeriesOccurrence(request.appointmentDate(), saved, null));
+                    anyBooked = true;
+                } catch (DataIntegrityViolationException e) {
+                    if (!isSlotConflict(e)) {
+                        throw e;
+                    }
+                    result.add(new SeriesOccurrence(request.appointmentDate(), null, SLOT_TAKEN));
+                }
+            }
+            if (!anyBooked) {
+                SeriesOccurrence first = result.get(0);
+                throw new ApiException(HttpStatus.CONFLICT,
+                        "No occurrence could be booked; " + first.appointmentDate() + ": " + first.error());
+            }
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            throw slotConflictOr(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BookingRejections validateSeries(List<AppointmentBookingRequest> requests, User counselor,
+                                             LocalDate firstDate, LocalDate lastDate) {
+        BookingContext context = rulePipeline.prefetch(counselor, firstDate, lastDate);
+        return rulePipeline.validateBatch(requests, context);
+    }
+
+    /**
+     * True when the violation is the unique active-slot constraint, i.e. another active
+     * appointment already holds the counselor's slot. Other violations are real errors.
+     */
+    public static boolean isSlotConflict(DataIntegrityViolationException e) {
+        // Postgres and H2 both name the violated index in the driver's message.
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            String message = t.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(ACTIVE_SLOT_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The API error for a slot conflict, or {@code e} itself for any other violation.
+     */
+    public static RuntimeException slotConflictOr(DataIntegrityViolationException e) {
+        return isSlotConflict(e) ? new ApiException(HttpStatus.BAD_REQUEST, SLOT_TAKEN) : e;
+    }
+
+    // Slots are tracked per minute, so 09:00:30 would collide with 09:00 in the slot index while
+    // the database saw two distinct times.
+    private static void requireWholeMinute(LocalTime appointmentTime) {
+        if (appointmentTime.getSecond() != 0 || appointmentTime.getNano() != 0) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "appointmentTime must be a whole minute");
+        }
+    }
+
+    private Appointment newAppointment(AppointmentBookingRequest request) {
         Appointment appointment = new Appointment();
-        appointment.setPatient(patient);
-        appointment.setCounselor(counselor);
-        appointment.setAppointmentDate(appointmentDate);
-        appointment.setAppointmentTime(appointmentTime);
+        appointment.setPatient(request.patient());
+        appointment.setCounselor(request.counselor());
+        appointment.setAppointmentDate(request.appointmentDate());
+        appointment.setAppointmentTime(request.appointmentTime());
         appointment.setStatus("scheduled");
-
-        return appointmentRepository.save(appointment);
+        return appointment;
     }
 }
@@ -0,0 +1,14 @@
+package com.example.mentalhealth.service.booking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Published after the transaction that canceled an appointment commits.
+ */
+public record AppointmentCanceledEvent(Long appointmentId,
+                                       Long patientId,
+                                       Long counselorId,
+                                       LocalDate appointmentDate,
+                                       LocalTime appointmentTime) {
+}
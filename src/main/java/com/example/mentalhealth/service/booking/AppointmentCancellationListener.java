@@ -0,0 +1,54 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.Appointment;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that publishes an {@link AppointmentCanceledEvent} when an appointment
+ * moves to {@code canceled}, whichever controller performed the change. The event is only
+ * published once the transaction commits, so listeners never see a cancellation that rolled back.
+ */
+public class AppointmentCancellationListener {
+    private final ObjectProvider<ApplicationEventPublisher> publisher;
+
+    public AppointmentCancellationListener(ObjectProvider<ApplicationEventPublisher> publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostUpdate
+    void onUpdate(Appointment appointment) {
+        if (!"canceled".equals(appointment.getStatus()) || "canceled".equals(appointment.getPersistedStatus())) {
+            return;
+        }
+
+        AppointmentCanceledEvent event = new AppointmentCanceledEvent(
+                appointment.getId(),
+                appointment.getPatient() == null ? null : appointment.getPatient().getId(),
+                appointment.getCounselor() == null ? null : appointment.getCounselor().getId(),
+                appointment.getAppointmentDate(),
+                appointment.getAppointmentTime()
+        );
+
+        Runnable publish = () -> {
+            ApplicationEventPublisher p = publisher.getIfAvailable();
+            if (p != null) {
+                p.publishEvent(event);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+}
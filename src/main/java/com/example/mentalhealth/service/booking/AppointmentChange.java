@@ -0,0 +1,23 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.AppointmentTombstone;
+import com.example.mentalhealth.repository.AppointmentListing;
+
+/**
+ * One entry of the appointment change feed: the appointment as it is now, or, when
+ * {@code appointment} is null, a tombstone for a deleted one.
+ */
+public record AppointmentChange(long changeVersion, Long appointmentId, AppointmentListing appointment) {
+
+    static AppointmentChange written(AppointmentListing appointment) {
+        return new AppointmentChange(appointment.changeVersion(), appointment.id(), appointment);
+    }
+
+    static AppointmentChange deleted(AppointmentTombstone tombstone) {
+        return new AppointmentChange(tombstone.getChangeVersion(), tombstone.getAppointmentId(), null);
+    }
+
+    public boolean isDeleted() {
+        return appointment == null;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.Appointment;
+import com.example.mentalhealth.model.AppointmentTombstone;
+import com.example.mentalhealth.repository.AppointmentListing;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.AppointmentTombstoneRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "Changes since" reads over appointments. Every appointment write draws a new
+ * {@code change_version} from {@code appointment_change_counter} and deletions leave a tombstone,
+ * so a client that holds a version only needs the rows above it.
+ *
+ * A version is drawn in a short transaction of its own that bumps the counter and records the
+ * version in {@code appointment_changes_in_flight}; the row is deleted once the writing
+ * transaction commits or rolls back. Writers hold the counter lock only for that short
+ * transaction, so they do not wait on each other, but their versions can commit out of order.
+ * Draws use a small connection pool of their own: a writer already holds a connection from the
+ * main pool, and waiting on that pool for a second one could exhaust it.
+ * Readers therefore stop at the safe watermark, just below the lowest version still in flight,
+ * and a change above it is returned by a later read. A writer that dies without deleting its row
+ * holds the watermark back for {@code mindcare.appointments.in-flight-timeout-seconds}; a write
+ * still running after that could be skipped, which no appointment transaction comes close to.
+ *
+ * Tombstones are kept for {@code mindcare.appointments.tombstone-retention-days}. A {@code since}
+ * older than the newest pruned tombstone gets 410, telling the client to reload the full list.
+ */
+@Service
+public class AppointmentChangeFeed {
+    /** Response header carrying the version to pass as {@code since} next time. */
+    public static final String HEADER = "X-Change-Version";
+
+    private static final String BUMP = "UPDATE appointment_change_counter SET version = version + 1 WHERE id = 1";
+    private static final String CURRENT = "SELECT version FROM appointment_change_counter WHERE id = 1";
+    private static final String INSERT_IN_FLIGHT = "INSERT INTO appointment_changes_in_flight (version, started_at) VALUES (?, ?)";
+    private static final String DELETE_IN_FLIGHT = "DELETE FROM appointment_changes_in_flight WHERE version = ?";
+    private static final String DELETE_ABANDONED = "DELETE FROM appointment_changes_in_flight WHERE started_at <= ?";
+    private static final String PRUNED_THROUGH = "SELECT pruned_through FROM appointment_change_counter WHERE id = 1";
+    private static final String INSERT_TOMBSTONE =
+            "INSERT INTO appointment_tombstones (appointment_id, patient_id, counselor_id, change_version, deleted_at) VALUES (?, ?, ?, ?, ?)";
+    // Only raises pruned_through, so it stays correct if two nodes sweep at once.
+    private static final String ADVANCE_PRUNED =
+            "UPDATE appointment_change_counter SET pruned_through = (SELECT MAX(change_version) FROM appointment_tombstones WHERE deleted_at < ?) " +
+                    "WHERE id = 1 AND pruned_through < (SELECT MAX(change_version) FROM appointment_tombstones WHERE deleted_at < ?)";
+    private static final String DELETE_PRUNED =
+            "DELETE FROM appointment_tombstones WHERE change_version <= (SELECT pruned_through FROM appointment_change_counter WHERE id = 1)";
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentTombstoneRepository tombstoneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final HikariDataSource versionPool;
+    private final JdbcTemplate versionJdbc;
+    private final TransactionTemplate versionTransaction;
+    private final Duration tombstoneRetention;
+    private final Duration inFlightTimeout;
+
+    public AppointmentChangeFeed(AppointmentRepository appointmentRepository,
+                                 AppointmentTombstoneRepository tombstoneRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 @Value("${mindcare.appointments.tombstone-retention-days:30}") long tombstoneRetentionDays,
+                                 @Value("${mindcare.appointments.in-flight-timeout-seconds:300}") long inFlightTimeoutSeconds,
+                                 @Value("${mindcare.appointments.version-pool-size:2}") int versionPoolSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.versionPool = DataSourceBuilder.derivedFrom(dataSource).type(HikariDataSource.class).build();
+        this.versionPool.setPoolName("change-versions");
+        this.versionPool.setMaximumPoolSize(versionPoolSize);
+        this.versionJdbc = new JdbcTemplate(versionPool);
+        this.versionTransaction = new TransactionTemplate(new DataSourceTransactionManager(versionPool));
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+        this.inFlightTimeout = Duration.ofSeconds(inFlightTimeoutSeconds);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        versionPool.close();
+    }
+
+    /**
+     * The safe watermark: every version up to it has committed or rolled back. Read it before a
+     * full list so that changes racing with the list are picked up by the next {@code since} read.
+     */
+    public long watermark() {
+        return appointmentRepository.safeChangeVersion(LocalDateTime.now().minus(inFlightTimeout));
+    }
+
+    public AppointmentChangePage forCounselor(Long counselorId, long since, int limit) {
+        requireRetained(since);
+        long upTo = watermark();
+        return page(since, upTo, limit,
+                appointmentRepository.findChangesForCounselor(counselorId, since, upTo, Limit.of(limit)),
+                tombstoneRepository.findForCounselorSince(counselorId, since, upTo, Limit.of(limit)));
+    }
+
+    public AppointmentChangePage forPatient(Long patientId, long since, int limit) {
+        requireRetained(since);
+        long upTo = watermark();
+        return page(since, upTo, limit,
+                appointmentRepository.findChangesForPatient(patientId, since, upTo, Limit.of(limit)),
+                tombstoneRepository.findForPatientSince(patientId, since, upTo, Limit.of(limit)));
+    }
+
+    /**
+     * Deletes tombstones past the retention period and records the highest version removed, and
+     * clears in-flight versions left behind by writers that died.
+     */
+    @Scheduled(fixedDelayString = "${mindcare.appointments.tombstone-prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        if (jdbcTemplate.update(ADVANCE_PRUNED, cutoff, cutoff) > 0) {
+            jdbcTemplate.update(DELETE_PRUNED);
+        }
+        jdbcTemplate.update(DELETE_ABANDONED, LocalDateTime.now().minus(inFlightTimeout));
+    }
+
+    /**
+     * Draws the next version and marks it in flight until the calling transaction completes. The
+     * draw commits on its own straight away; a rolled-back writer just leaves a gap.
+     */
+    long nextVersion() {
+        long version = versionTransaction.execute(tx -> {
+            versionJdbc.update(BUMP);
+            long drawn = versionJdbc.queryForObject(CURRENT, Long.class);
+            versionJdbc.update(INSERT_IN_FLIGHT, drawn, LocalDateTime.now());
+            return drawn;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                versionJdbc.update(DELETE_IN_FLIGHT, version);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * Writes the appointment's tombstone. Goes through JDBC because it runs inside a JPA remove
+     * callback, where the EntityManager must not be used; the connection is the transaction's,
+     * so the tombstone commits or rolls back with the delete.
+     */
+    void recordDeletion(Appointment appointment) {
+        jdbcTemplate.update(INSERT_TOMBSTONE,
+                appointment.getId(),
+                appointment.getPatient().getId(),
+                appointment.getCounselor().getId(),
+                nextVersion(),
+                LocalDateTime.now());
+    }
+
+    private void requireRetained(long since) {
+        long prunedThrough = jdbcTemplate.queryForObject(PRUNED_THROUGH, Long.class);
+        if (since < prunedThrough) {
+            throw new ApiException(HttpStatus.GONE, "Changes before version " + prunedThrough + " are no longer available; reload the full list");
+        }
+    }
+
+    /**
+     * Merges the two version-ordered reads (each at most {@code limit} rows) and keeps the first
+     * {@code limit} changes. When the page is full the watermark stops at the last change kept,
+     * so the next read continues from there; otherwise everything up to {@code upTo} was read.
+     */
+    private static AppointmentChangePage page(long since, long upTo, int limit, List<AppointmentListing> rows, List<AppointmentTombstone> tombstones) {
+        List<AppointmentChange> changes = new ArrayList<>(Math.min(limit, rows.size() + tombstones.size()));
+        int r = 0;
+        int t = 0;
+        while (changes.size() < limit && (r < rows.size() || t < tombstones.size())) {
+            boolean takeRow = t >= tombstones.size()
+                    || (r < rows.size() && rows.get(r).changeVersion() < tombstones.get(t).getChangeVersion());
+            changes.add(takeRow ? AppointmentChange.written(rows.get(r++)) : AppointmentChange.deleted(tombstones.get(t++)));
+        }
+        long watermark = changes.size() < limit ? Math.max(since, upTo) : changes.get(changes.size() - 1).changeVersion();
+        return new AppointmentChangePage(changes, watermark);
+    }
+}
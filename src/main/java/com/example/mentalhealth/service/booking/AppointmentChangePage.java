@@ -0,0 +1,10 @@
+package com.example.mentalhealth.service.booking;
+
+import java.util.List;
+
+/**
+ * Changes in version order and the version to read from next. A page holding the full limit
+ * may be followed by more.
+ */
+public record AppointmentChangePage(List<AppointmentChange> changes, long watermark) {
+}
@@ -0,0 +1,31 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.Appointment;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that stamps every insert and update of an {@link Appointment} (booking,
+ * status change, cancellation, whichever code path made it) with a new change version, and
+ * leaves a tombstone when one is deleted. See {@link AppointmentChangeFeed}.
+ */
+public class AppointmentChangeVersionListener {
+    private final ObjectProvider<AppointmentChangeFeed> changeFeed;
+
+    public AppointmentChangeVersionListener(ObjectProvider<AppointmentChangeFeed> changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void onWrite(Appointment appointment) {
+        appointment.setChangeVersion(changeFeed.getObject().nextVersion());
+    }
+
+    @PreRemove
+    void onRemove(Appointment appointment) {
+        changeFeed.getObject().recordDeletion(appointment);
+    }
+}
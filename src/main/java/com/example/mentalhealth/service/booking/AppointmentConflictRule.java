@@ -1,35 +1,43 @@
 package com.example.mentalhealth.service.booking;
 
 import com.example.mentalhealth.exception.ApiException;
-import com.example.mentalhealth.repository.AppointmentRepository;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+
 @Service
 @Order(300)
 public class AppointmentConflictRule implements AppointmentBookingRule {
-    private final AppointmentRepository appointmentRepository;
+    private final SlotHoldRegistry slotHolds;
+
+    public AppointmentConflictRule(SlotHoldRegistry slotHolds) {
+        this.slotHolds = slotHolds;
+    }
 
-    public AppointmentConflictRule(AppointmentRepository appointmentRepository) {
-        this.appointmentRepository = appointmentRepository;
+    @Override
+    public Set<BookingDataRequirement> requirements() {
+        return Set.of(BookingDataRequirement.BOOKED_SLOTS);
     }
 
     @Override
-    public void validate(AppointmentBookingRequest request) {
+    public void validate(AppointmentBookingRequest request, BookingContext context) {
         if (request == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid request");
         }
 
-        boolean conflict = appointmentRepository.existsByCounselorAndAppointmentDateAndAppointmentTimeAndStatusNot(
-                request.counselor(),
-                request.appointmentDate(),
-                request.appointmentTime(),
-                "canceled"
-        );
+        // Answered from the in-memory slot index, or from one prefetched range query for
+        // dates the index does not cover.
+        boolean conflict = context.isSlotTaken(request.appointmentDate(), request.appointmentTime());
 
         if (conflict) {
-            throw new ApiException(HttpStatus.BAD_REQUEST, "Time slot already booked");
+            throw new ApiException(HttpStatus.BAD_REQUEST, AppointmentBookingService.SLOT_TAKEN);
+        }
+
+        Long patientId = request.patient() == null ? null : request.patient().getId();
+        if (slotHolds.isHeldByOther(request.counselor().getId(), request.appointmentDate(), request.appointmentTime(), patientId)) {
+            throw new ApiException(HttpStatus.CONFLICT, "Time slot is on hold by another patient");
         }
     }
 }
@@ -0,0 +1,190 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.BookedSlot;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory occupancy index of non-canceled appointments.
+ *
+ * Each counselor/date pair owns a bitmap with one bit per minute of the day, so a
+ * conflict check is a single bit lookup instead of a database round trip.
+ *
+ * The index is warmed on startup with every active slot from that day onwards and is
+ * kept current by {@link AppointmentSlotIndexListener} after each committed insert,
+ * update or delete. Until warm-up finishes, listener updates are applied under a lock and
+ * remembered, and warm-up skips those slots: its query may predate them, and replaying it
+ * would bring back a booking canceled in the meantime.
+ *
+ * The index only sees this node's writes. Bookings check a set bit against the database before
+ * rejecting, since another node may have canceled the appointment since.
+ *
+ * Past dates are pruned periodically ({@code mindcare.booking.slot-index.prune-interval-ms})
+ * and coverage moves forward with them. Dates before {@link #covers(LocalDate)} must be
+ * checked against the database. Bookable times are whole minutes; other times are rejected
+ * before they reach the index.
+ */
+@Service
+public class AppointmentSlotIndex {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<Long, Map<LocalDate, AtomicLongArray>> slots = new ConcurrentHashMap<>();
+    private final Object warmLock = new Object();
+
+    private volatile LocalDate coveredFrom;
+    // Slots changed by the listener before warm-up finished; null afterwards. Guarded by warmLock.
+    private volatile Set<Slot> changedWhileWarming = new HashSet<>();
+
+    public AppointmentSlotIndex(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        LocalDate from = LocalDate.now();
+        List<BookedSlot> active = appointmentRepository.findActiveSlotsFrom(from);
+        synchronized (warmLock) {
+            Set<Slot> changed = changedWhileWarming;
+            if (changed == null) {
+                return;
+            }
+            for (BookedSlot slot : active) {
+                if (!changed.contains(new Slot(slot.counselorId(), slot.appointmentDate(), slot.appointmentTime()))) {
+                    set(slot.counselorId(), slot.appointmentDate(), slot.appointmentTime(), true);
+                }
+            }
+            coveredFrom = from;
+            changedWhileWarming = null;
+        }
+    }
+
+    /**
+     * Drops dates before today and stops covering them.
+     */
+    @Scheduled(fixedDelayString = "${mindcare.booking.slot-index.prune-interval-ms:3600000}")
+    public void prunePastDates() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = coveredFrom;
+        if (from == null) {
+            return;
+        }
+        if (from.isBefore(today)) {
+            coveredFrom = today;
+        }
+        // Counselor maps are kept even when empty, so a concurrent occupy never writes into a
+        // map that was just detached.
+        for (Map<LocalDate, AtomicLongArray> byDate : slots.values()) {
+            byDate.keySet().removeIf(date -> date.isBefore(today));
+        }
+    }
+
+    /**
+     * True when the index tracks the given date.
+     */
+    public boolean covers(LocalDate date) {
+        LocalDate from = coveredFrom;
+        return from != null && date != null && !date.isBefore(from);
+    }
+
+    public boolean isBooked(Long counselorId, LocalDate date, LocalTime time) {
+        if (counselorId == null || date == null || time == null) {
+            return false;
+        }
+        Map<LocalDate, AtomicLongArray> byDate = slots.get(counselorId);
+        if (byDate == null) {
+            return false;
+        }
+        AtomicLongArray bits = byDate.get(date);
+        if (bits == null) {
+            return false;
+        }
+        int minute = minuteOfDay(time);
+        return (bits.get(minute >>> 6) & (1L << minute)) != 0;
+    }
+
+    public void occupy(Long counselorId, LocalDate date, LocalTime time) {
+        update(counselorId, date, time, true);
+    }
+
+    public void release(Long counselorId, LocalDate date, LocalTime time) {
+        update(counselorId, date, time, false);
+    }
+
+    private void update(Long counselorId, LocalDate date, LocalTime time, boolean booked) {
+        if (!tracks(counselorId, date, time)) {
+            return;
+        }
+        if (changedWhileWarming != null) {
+            synchronized (warmLock) {
+                Set<Slot> changed = changedWhileWarming;
+                if (changed != null) {
+                    changed.add(new Slot(counselorId, date, time));
+                    set(counselorId, date, time, booked);
+                    return;
+                }
+            }
+        }
+        set(counselorId, date, time, booked);
+    }
+
+    private void set(Long counselorId, LocalDate date, LocalTime time, boolean booked) {
+        if (booked) {
+            setBit(counselorId, date, time);
+        } else {
+            clearBit(counselorId, date, time);
+        }
+    }
+
+    private void setBit(Long counselorId, LocalDate date, LocalTime time) {
+        AtomicLongArray bits = slots
+                .computeIfAbsent(counselorId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(date, d -> new AtomicLongArray(WORDS_PER_DAY));
+        int minute = minuteOfDay(time);
+        long mask = 1L << minute;
+        bits.getAndAccumulate(minute >>> 6, mask, (word, m) -> word | m);
+    }
+
+    private void clearBit(Long counselorId, LocalDate date, LocalTime time) {
+        Map<LocalDate, AtomicLongArray> byDate = slots.get(counselorId);
+        if (byDate == null) {
+            return;
+        }
+        AtomicLongArray bits = byDate.get(date);
+        if (bits == null) {
+            return;
+        }
+        int minute = minuteOfDay(time);
+        long mask = ~(1L << minute);
+        bits.getAndAccumulate(minute >>> 6, mask, (word, m) -> word & m);
+    }
+
+    private boolean tracks(Long counselorId, LocalDate date, LocalTime time) {
+        if (counselorId == null || date == null || time == null) {
+            return false;
+        }
+        // While warming, coveredFrom is still null and every change is recorded.
+        LocalDate from = coveredFrom;
+        return from == null || !date.isBefore(from);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private record Slot(Long counselorId, LocalDate date, LocalTime time) {
+    }
+}
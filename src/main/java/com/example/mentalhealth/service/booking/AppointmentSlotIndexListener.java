@@ -0,0 +1,65 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.Appointment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link AppointmentSlotIndex} in sync with every write
+ * to {@link Appointment}, whichever controller or service performed it.
+ *
+ * Changes are applied only after the surrounding transaction commits so a rolled back
+ * booking never leaves a phantom bit behind.
+ */
+public class AppointmentSlotIndexListener {
+    private final ObjectProvider<AppointmentSlotIndex> slotIndex;
+
+    public AppointmentSlotIndexListener(ObjectProvider<AppointmentSlotIndex> slotIndex) {
+        this.slotIndex = slotIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onWrite(Appointment appointment) {
+        boolean active = !"canceled".equals(appointment.getStatus());
+        afterCommit(appointment, active);
+    }
+
+    @PostRemove
+    void onRemove(Appointment appointment) {
+        afterCommit(appointment, false);
+    }
+
+    private void afterCommit(Appointment appointment, boolean active) {
+        Long counselorId = appointment.getCounselor() == null ? null : appointment.getCounselor().getId();
+        var date = appointment.getAppointmentDate();
+        var time = appointment.getAppointmentTime();
+
+        Runnable apply = () -> {
+            AppointmentSlotIndex index = slotIndex.getIfAvailable();
+            if (index == null) {
+                return;
+            }
+            if (active) {
+                index.occupy(counselorId, date, time);
+            } else {
+                index.release(counselorId, date, time);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.mentalhealth.service.booking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Data prefetched once per booking (or booking batch) and shared by every rule, so rules
+ * never query on their own. Only what some rule declared via
+ * {@link AppointmentBookingRule#requirements()} is populated.
+ */
+public final class BookingContext {
+    private final CompiledSchedule schedule;
+    private final SlotLookup bookedSlots;
+
+    BookingContext(CompiledSchedule schedule, SlotLookup bookedSlots) {
+        this.schedule = schedule;
+        this.bookedSlots = bookedSlots;
+    }
+
+    public CompiledSchedule schedule() {
+        if (schedule == null) {
+            throw new IllegalStateException("SCHEDULE was not declared as a booking rule requirement");
+        }
+        return schedule;
+    }
+
+    public boolean isSlotTaken(LocalDate date, LocalTime time) {
+        if (bookedSlots == null) {
+            throw new IllegalStateException("BOOKED_SLOTS was not declared as a booking rule requirement");
+        }
+        return bookedSlots.isTaken(date, time);
+    }
+
+    @FunctionalInterface
+    interface SlotLookup {
+        boolean isTaken(LocalDate date, LocalTime time);
+    }
+}
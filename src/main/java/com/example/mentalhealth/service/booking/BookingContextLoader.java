@@ -0,0 +1,63 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.BookedSlot;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Prefetch step of the booking pipeline: loads everything the rules declared they need
+ * for one counselor and a date range.
+ */
+@Component
+public class BookingContextLoader {
+    private final CounselorScheduleCache scheduleCache;
+    private final AppointmentSlotIndex slotIndex;
+    private final AppointmentRepository appointmentRepository;
+
+    public BookingContextLoader(CounselorScheduleCache scheduleCache,
+                                AppointmentSlotIndex slotIndex,
+                                AppointmentRepository appointmentRepository) {
+        this.scheduleCache = scheduleCache;
+        this.slotIndex = slotIndex;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    public BookingContext load(User counselor, LocalDate from, LocalDate to, Set<BookingDataRequirement> requirements) {
+        Long counselorId = counselor.getId();
+
+        CompiledSchedule schedule = requirements.contains(BookingDataRequirement.SCHEDULE)
+                ? scheduleCache.get(counselorId)
+                : null;
+
+        BookingContext.SlotLookup bookedSlots = null;
+        if (requirements.contains(BookingDataRequirement.BOOKED_SLOTS)) {
+            if (slotIndex.covers(from)) {
+                // A clear bit is trusted: a booking this node has not seen yet still fails on the
+                // unique constraint. A set bit may predate a cancellation made on another node,
+                // so it is confirmed against the database, and dropped if that finds the slot free.
+                bookedSlots = (date, time) -> slotIndex.isBooked(counselorId, date, time)
+                        && confirmBooked(counselorId, date, time);
+            } else {
+                // Dates before the index warm-up: one range query for the whole span.
+                Set<BookedSlot> booked = new HashSet<>(appointmentRepository.findActiveSlotsBetween(counselor, from, to));
+                bookedSlots = (date, time) -> booked.contains(new BookedSlot(counselorId, date, time));
+            }
+        }
+
+        return new BookingContext(schedule, bookedSlots);
+    }
+
+    private boolean confirmBooked(Long counselorId, LocalDate date, LocalTime time) {
+        if (appointmentRepository.existsActiveSlot(counselorId, date, time)) {
+            return true;
+        }
+        slotIndex.release(counselorId, date, time);
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.mentalhealth.service.booking;
+
+/**
+ * Data a booking rule reads from {@link BookingContext}. The pipeline loads the union of
+ * all rules' requirements once, before any rule runs.
+ */
+public enum BookingDataRequirement {
+    /** The counselor's compiled weekly availability. */
+    SCHEDULE,
+    /** The counselor's non-canceled appointments over the requested dates. */
+    BOOKED_SLOTS
+}
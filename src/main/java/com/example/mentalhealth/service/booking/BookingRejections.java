@@ -0,0 +1,39 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+
+/**
+ * Per-request outcome of a batch validation: the first rejection recorded for each
+ * request index, or none if every rule accepted it.
+ */
+public final class BookingRejections {
+    private final ApiException[] rejections;
+
+    BookingRejections(int size) {
+        this.rejections = new ApiException[size];
+    }
+
+    public boolean isRejected(int index) {
+        return rejections[index] != null;
+    }
+
+    public void reject(int index, ApiException reason) {
+        if (rejections[index] == null) {
+            rejections[index] = reason;
+        }
+    }
+
+    public ApiException get(int index) {
+        return rejections[index];
+    }
+
+    public int count() {
+        int n = 0;
+        for (ApiException e : rejections) {
+            if (e != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the {@link AppointmentBookingRule} chain.
+ *
+ * Every rule is timed ({@code mindcare.booking.rule.duration}) and its rejections counted
+ * ({@code mindcare.booking.rule.rejections}), both tagged with the rule name. The data all
+ * rules declare is prefetched once through {@link BookingContextLoader}.
+ *
+ * By default rules run in their {@code @Order}. With {@code mindcare.booking.rules.adaptive-order=true}
+ * the chain is periodically re-sorted by measured cost divided by rejection rate, so cheap rules
+ * that reject often run first. Rules must then not depend on running after one another.
+ */
+@Component
+public class BookingRulePipeline {
+    private static final int REORDER_INTERVAL = 500;
+
+    private final List<RuleStats> declared;
+    private final Set<BookingDataRequirement> requirements;
+    private final BookingContextLoader contextLoader;
+    private final boolean adaptiveOrder;
+    private final AtomicLong runs = new AtomicLong();
+
+    private volatile List<RuleStats> ordered;
+
+    public BookingRulePipeline(List<AppointmentBookingRule> rules,
+                               BookingContextLoader contextLoader,
+                               MeterRegistry meterRegistry,
+                               @Value("${mindcare.booking.rules.adaptive-order:false}") boolean adaptiveOrder) {
+        this.contextLoader = contextLoader;
+        this.adaptiveOrder = adaptiveOrder;
+
+        List<RuleStats> stats = new ArrayList<>();
+        Set<BookingDataRequirement> needed = EnumSet.noneOf(BookingDataRequirement.class);
+        for (AppointmentBookingRule rule : rules) {
+            stats.add(new RuleStats(rule, meterRegistry));
+            needed.addAll(rule.requirements());
+        }
+        this.declared = List.copyOf(stats);
+        this.ordered = this.declared;
+        this.requirements = needed.isEmpty() ? Set.of() : Set.copyOf(needed);
+    }
+
+    public void validate(AppointmentBookingRequest request) {
+        BookingContext context = contextLoader.load(request.counselor(), request.appointmentDate(), request.appointmentDate(), requirements);
+        validate(request, context);
+    }
+
+    /**
+     * Prefetches once for a span of dates; pair with {@link #validate(AppointmentBookingRequest, BookingContext)}
+     * to check several requests for the same counselor against one context.
+     */
+    public BookingContext prefetch(User counselor, LocalDate from, LocalDate to) {
+        return contextLoader.load(counselor, from, to, requirements);
+    }
+
+    public void validate(AppointmentBookingRequest request, BookingContext context) {
+        try {
+            for (RuleStats stats : ordered) {
+                stats.run(request, context);
+            }
+        } finally {
+            // Rejections throw; they must still count towards the next re-sort.
+            if (adaptiveOrder && runs.incrementAndGet() % REORDER_INTERVAL == 0) {
+                reorder();
+            }
+        }
+    }
+
+    /**
+     * Validates a batch of requests for one counselor in a single pass per rule and reports
+     * every rejection instead of stopping at the first.
+     */
+    public BookingRejections validateBatch(List<AppointmentBookingRequest> requests, BookingContext context) {
+        BookingRejections rejections = new BookingRejections(requests.size());
+        for (RuleStats stats : ordered) {
+            stats.runBatch(requests, context, rejections);
+        }
+        if (adaptiveOrder && runs.addAndGet(requests.size()) % REORDER_INTERVAL < requests.size()) {
+            reorder();
+        }
+        return rejections;
+    }
+
+    /**
+     * Current per-rule statistics in execution order.
+     */
+    public List<RuleSnapshot> snapshot() {
+        List<RuleSnapshot> result = new ArrayList<>();
+        for (RuleStats stats : ordered) {
+            result.add(stats.snapshot());
+        }
+        return result;
+    }
+
+    private void reorder() {
+        // Rank on a frozen copy of the counters so concurrent updates cannot break the sort.
+        Map<RuleStats, Double> ranks = new IdentityHashMap<>();
+        for (RuleStats stats : declared) {
+            ranks.put(stats, stats.rank());
+        }
+        List<RuleStats> next = new ArrayList<>(declared);
+        // Expected cost of reaching a rejection: cheap, frequently rejecting rules go first.
+        // Ties (e.g. rules that never reject) keep their declared order.
+        next.sort(Comparator.comparingDouble(ranks::get));
+        ordered = List.copyOf(next);
+    }
+
+    public record RuleSnapshot(String rule, long evaluations, long rejections, double meanMicros) {
+    }
+
+    private static final class RuleStats {
+        private final AppointmentBookingRule rule;
+        private final String name;
+        private final Timer timer;
+        private final Counter rejectionCounter;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        RuleStats(AppointmentBookingRule rule, MeterRegistry registry) {
+            this.rule = rule;
+            this.name = ClassUtils.getUserClass(rule).getSimpleName();
+            this.timer = Timer.builder("mindcare.booking.rule.duration")
+                    .description("Time spent in one booking rule")
+                    .tag("rule", name)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.rejectionCounter = Counter.builder("mindcare.booking.rule.rejections")
+                    .description("Bookings rejected by one booking rule")
+                    .tag("rule", name)
+                    .register(registry);
+        }
+
+        void run(AppointmentBookingRequest request, BookingContext context) {
+            long start = System.nanoTime();
+            try {
+                rule.validate(request, context);
+            } catch (ApiException e) {
+                rejections.increment();
+                rejectionCounter.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                evaluations.increment();
+                totalNanos.add(elapsed);
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void runBatch(List<AppointmentBookingRequest> requests, BookingContext context, BookingRejections outcome) {
+            int before = outcome.count();
+            long start = System.nanoTime();
+            try {
+                rule.validateBatch(requests, context, outcome);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                int rejected = outcome.count() - before;
+                evaluations.add(requests.size());
+                recordRejections(rejected);
+                totalNanos.add(elapsed);
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void recordRejections(int rejected) {
+            if (rejected > 0) {
+                rejections.add(rejected);
+                rejectionCounter.increment(rejected);
+            }
+        }
+
+        double rank() {
+            long n = evaluations.sum();
+            if (n == 0) {
+                return Double.MAX_VALUE;
+            }
+            double meanNanos = (double) totalNanos.sum() / n;
+            double rejectRate = Math.max((double) rejections.sum() / n, 1e-6);
+            return meanNanos / rejectRate;
+        }
+
+        RuleSnapshot snapshot() {
+            long n = evaluations.sum();
+            double meanMicros = n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+            return new RuleSnapshot(name, n, rejections.sum(), meanMicros);
+        }
+    }
+}
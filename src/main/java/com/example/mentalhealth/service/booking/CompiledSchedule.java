@@ -0,0 +1,101 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AvailabilityWindow;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A counselor's weekly availability in primitive form: per weekday (0 = Sunday), sorted
+ * start and end minute-of-day arrays with overlapping or touching windows merged.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledSchedule {
+    static final CompiledSchedule EMPTY = compile(List.of());
+
+    private final int[][] starts;
+    private final int[][] ends;
+
+    private CompiledSchedule(int[][] starts, int[][] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public static CompiledSchedule compile(List<AvailabilityWindow> windows) {
+        List<List<int[]>> byDay = new ArrayList<>();
+        for (int d = 0; d < 7; d++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (AvailabilityWindow w : windows) {
+            if (w.dayOfWeek() == null || w.dayOfWeek() < 0 || w.dayOfWeek() > 6
+                    || w.startTime() == null || w.endTime() == null) {
+                continue;
+            }
+            byDay.get(w.dayOfWeek()).add(new int[]{minuteOfDay(w.startTime()), minuteOfDay(w.endTime())});
+        }
+
+        int[][] starts = new int[7][];
+        int[][] ends = new int[7][];
+        for (int d = 0; d < 7; d++) {
+            List<int[]> day = byDay.get(d);
+            day.sort(Comparator.comparingInt(w -> w[0]));
+            int[] s = new int[day.size()];
+            int[] e = new int[day.size()];
+            int n = 0;
+            for (int[] w : day) {
+                if (n > 0 && w[0] <= e[n - 1]) {
+                    e[n - 1] = Math.max(e[n - 1], w[1]);
+                } else {
+                    s[n] = w[0];
+                    e[n] = w[1];
+                    n++;
+                }
+            }
+            starts[d] = Arrays.copyOf(s, n);
+            ends[d] = Arrays.copyOf(e, n);
+        }
+        return new CompiledSchedule(starts, ends);
+    }
+
+    /**
+     * True when {@code time} falls inside a window on the given weekday (start inclusive, end exclusive).
+     */
+    public boolean isAvailable(int dayOfWeek, LocalTime time) {
+        int[] s = starts[dayOfWeek];
+        if (s.length == 0) {
+            return false;
+        }
+        int minute = minuteOfDay(time);
+        // Index of the last window starting at or before the requested minute.
+        int i = Arrays.binarySearch(s, minute);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i >= 0 && minute < ends[dayOfWeek][i];
+    }
+
+    public boolean isEmpty() {
+        for (int[] s : starts) {
+            if (s.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int[] starts(int dayOfWeek) {
+        return starts[dayOfWeek];
+    }
+
+    int[] ends(int dayOfWeek) {
+        return ends[dayOfWeek];
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.mentalhealth.service.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks striped by counselor id.
+ *
+ * Bookings for the same counselor serialize on one stripe, while bookings for other
+ * counselors almost always land on a different stripe and proceed in parallel.
+ */
+@Component
+public class CounselorBookingLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public CounselorBookingLocks(@Value("${mindcare.booking.lock-stripes:64}") int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public ReentrantLock lockFor(Long counselorId) {
+        int h = counselorId == null ? 0 : Long.hashCode(counselorId);
+        // Fibonacci hashing spreads sequential ids across stripes.
+        return stripes[((h * 0x9E3779B9) >>> 16) & mask];
+    }
+}
@@ -6,11 +6,13 @@ import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Order(100)
 public class CounselorEligibilityRule implements AppointmentBookingRule {
     @Override
-    public void validate(AppointmentBookingRequest request) {
+    public void validate(AppointmentBookingRequest request, BookingContext context) {
         if (request == null || request.counselor() == null) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Counselor not found");
         }
@@ -23,4 +25,19 @@ public class CounselorEligibilityRule implements AppointmentBookingRule {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Counselor account is deactivated");
         }
     }
+
+    @Override
+    public void validateBatch(List<AppointmentBookingRequest> requests, BookingContext context, BookingRejections rejections) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        // Every request in a batch is for the same counselor, so one check covers them all.
+        try {
+            validate(requests.get(0), context);
+        } catch (ApiException e) {
+            for (int i = 0; i < requests.size(); i++) {
+                rejections.reject(i, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AvailabilityRepository;
+import com.example.mentalhealth.repository.AvailabilityWindow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches each counselor's {@link CompiledSchedule} (bounded by
+ * {@code mindcare.booking.schedule-cache.max-size}). Entries are built on first use and
+ * dropped when the counselor's availability is replaced or the counselor is deleted. That only
+ * reaches this node's cache, so entries also expire
+ * {@code mindcare.booking.schedule-cache.ttl-seconds} after loading, and changes made on other
+ * nodes show up within that time.
+ *
+ * Availability is read outside any cache lock, so a read can overlap an invalidation and return
+ * the old windows. Every invalidation bumps a generation counter, and a loaded schedule is only
+ * stored if no invalidation happened since its read started; otherwise it is returned to that
+ * caller but not cached. Invalidations are rare, so one counter for all counselors is enough.
+ */
+@Service
+public class CounselorScheduleCache {
+    private final AvailabilityRepository availabilityRepository;
+    private final Cache<Long, CompiledSchedule> schedules;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CounselorScheduleCache(AvailabilityRepository availabilityRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${mindcare.booking.schedule-cache.max-size:10000}") long maxSize,
+                                  @Value("${mindcare.booking.schedule-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.availabilityRepository = availabilityRepository;
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, schedules, "schedules");
+    }
+
+    public CompiledSchedule get(Long counselorId) {
+        if (counselorId == null) {
+            return CompiledSchedule.EMPTY;
+        }
+        return getAll(List.of(counselorId)).get(counselorId);
+    }
+
+    /**
+     * Schedules for many counselors; misses are loaded together with a single IN-list query.
+     */
+    public Map<Long, CompiledSchedule> getAll(Collection<Long> counselorIds) {
+        Map<Long, CompiledSchedule> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : counselorIds) {
+            CompiledSchedule cached = schedules.getIfPresent(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long stamp = generation.get();
+        Map<Long, List<AvailabilityWindow>> windows = new HashMap<>();
+        for (AvailabilityWindow w : availabilityRepository.findWindowsByCounselorIds(missing)) {
+            windows.computeIfAbsent(w.counselorId(), id -> new ArrayList<>()).add(w);
+        }
+        for (Long id : missing) {
+            CompiledSchedule compiled = CompiledSchedule.compile(windows.getOrDefault(id, List.of()));
+            // invalidate() bumps the generation before removing, so either this check sees the
+            // bump or the removal runs after this store.
+            CompiledSchedule stored = schedules.asMap().compute(id, (key, existing) ->
+                    existing != null ? existing : generation.get() == stamp ? compiled : null);
+            result.put(id, stored != null ? stored : compiled);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the counselor's schedule now and again once the current transaction completes, so a
+     * read that saw the pre-change windows cannot leave them cached.
+     */
+    public void invalidate(Long counselorId) {
+        if (counselorId == null) {
+            return;
+        }
+        evict(counselorId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(counselorId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long counselorId) {
+        generation.incrementAndGet();
+        schedules.invalidate(counselorId);
+    }
+}
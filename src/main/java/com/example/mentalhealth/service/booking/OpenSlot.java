@@ -0,0 +1,12 @@
+package com.example.mentalhealth.service.booking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record OpenSlot(
+        Long counselorId,
+        LocalDate date,
+        LocalTime startTime,
+        LocalTime endTime
+) {
+}
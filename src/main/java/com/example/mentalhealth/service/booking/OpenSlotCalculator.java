@@ -0,0 +1,84 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.BookedSlot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a counselor's compiled weekly schedule into concrete bookable slots by
+ * subtracting booked appointments.
+ *
+ * Windows are already merged and sorted per weekday and appointments are consumed from
+ * a single list sorted by date and time, so the whole range is computed in one forward pass.
+ * A booked appointment occupies {@code slotMinutes} from its start time.
+ */
+final class OpenSlotCalculator {
+    private OpenSlotCalculator() {
+    }
+
+    static List<OpenSlot> calculate(Long counselorId,
+                                    CompiledSchedule schedule,
+                                    List<BookedSlot> bookedSorted,
+                                    LocalDate from,
+                                    LocalDate to,
+                                    int slotMinutes,
+                                    LocalDateTime notBefore,
+                                    int limit) {
+        List<OpenSlot> result = new ArrayList<>();
+        int b = 0;
+
+        for (LocalDate date = from; !date.isAfter(to) && result.size() < limit; date = date.plusDays(1)) {
+            // Skip appointments on earlier dates, then collect this date's booked minutes.
+            while (b < bookedSorted.size() && bookedSorted.get(b).appointmentDate().isBefore(date)) {
+                b++;
+            }
+            int dayStart = b;
+            while (b < bookedSorted.size() && bookedSorted.get(b).appointmentDate().equals(date)) {
+                b++;
+            }
+
+            int dayOfWeek = date.getDayOfWeek().getValue() % 7;
+            int[] starts = schedule.starts(dayOfWeek);
+            int[] ends = schedule.ends(dayOfWeek);
+            if (starts.length == 0) {
+                continue;
+            }
+
+            int earliest = 0;
+            if (notBefore != null) {
+                if (date.isBefore(notBefore.toLocalDate())) {
+                    continue;
+                }
+                if (date.equals(notBefore.toLocalDate())) {
+                    earliest = CompiledSchedule.minuteOfDay(notBefore.toLocalTime()) + 1;
+                }
+            }
+
+            int booked = dayStart;
+            for (int w = 0; w < starts.length && result.size() < limit; w++) {
+                int start = starts[w];
+                int end = ends[w];
+                for (int t = start; t + slotMinutes <= end && result.size() < limit; t += slotMinutes) {
+                    // Drop appointments that end at or before this candidate starts.
+                    while (booked < b && CompiledSchedule.minuteOfDay(bookedSorted.get(booked).appointmentTime()) + slotMinutes <= t) {
+                        booked++;
+                    }
+                    boolean overlaps = booked < b && CompiledSchedule.minuteOfDay(bookedSorted.get(booked).appointmentTime()) < t + slotMinutes;
+                    if (overlaps || t < earliest) {
+                        continue;
+                    }
+                    result.add(new OpenSlot(counselorId, date, toTime(t), toTime(t + slotMinutes)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static LocalTime toTime(int minuteOfDay) {
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.BookedSlot;
+import com.example.mentalhealth.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open slot searches. The first-available search spreads the per-counselor calculation over its
+ * own bounded pool ({@code mindcare.booking.open-slots.threads}, one per core by default), so a
+ * burst of searches cannot take threads from other work; when the pool's queue is full the
+ * request thread runs the task itself.
+ */
+@Service
+public class OpenSlotService {
+    static final int MAX_RANGE_DAYS = 62;
+    private static final int ID_BATCH_SIZE = 500;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final Comparator<OpenSlot> EARLIEST_FIRST = Comparator
+            .comparing(OpenSlot::date)
+            .thenComparing(OpenSlot::startTime)
+            .thenComparing(OpenSlot::counselorId);
+    private static final Comparator<BookedSlot> BY_DATE_AND_TIME = Comparator
+            .comparing(BookedSlot::appointmentDate)
+            .thenComparing(BookedSlot::appointmentTime);
+
+    private final UserRepository userRepository;
+    private final CounselorScheduleCache scheduleCache;
+    private final AppointmentRepository appointmentRepository;
+    private final SlotHoldRegistry slotHolds;
+    private final int defaultSlotMinutes;
+    private final int counselorsPerTask;
+    private final ThreadPoolExecutor executor;
+
+    public OpenSlotService(UserRepository userRepository,
+                           CounselorScheduleCache scheduleCache,
+                           AppointmentRepository appointmentRepository,
+                           SlotHoldRegistry slotHolds,
+                           @Value("${mindcare.booking.slot-minutes:60}") int defaultSlotMinutes,
+                           @Value("${mindcare.booking.open-slots.threads:0}") int threads,
+                           @Value("${mindcare.booking.open-slots.counselors-per-task:256}") int counselorsPerTask) {
+        this.userRepository = userRepository;
+        this.scheduleCache = scheduleCache;
+        this.appointmentRepository = appointmentRepository;
+        this.slotHolds = slotHolds;
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.counselorsPerTask = counselorsPerTask;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "open-slots-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Bookable slots for one counselor between {@code from} and {@code to} (inclusive).
+     * Uses the cached weekly schedule and one appointment range query regardless of range size.
+     * Slots held by other patients are left out; the caller's own hold stays visible.
+     */
+    public List<OpenSlot> findOpenSlots(User counselor, LocalDate from, LocalDate to, Integer slotMinutes, Long patientId) {
+        if (counselor == null || counselor.getRole() != User.Role.counselor) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "User is not a counselor");
+        }
+        int length = resolveSlotMinutes(slotMinutes);
+        validateRange(from, to);
+
+        List<BookedSlot> booked = withHolds(appointmentRepository.findActiveSlotsBetween(counselor, from, to),
+                List.of(counselor.getId()), from, to, patientId);
+        return OpenSlotCalculator.calculate(
+                counselor.getId(),
+                scheduleCache.get(counselor.getId()),
+                booked,
+                from,
+                to,
+                length,
+                LocalDateTime.now(),
+                Integer.MAX_VALUE
+        );
+    }
+
+    /**
+     * Earliest open slots across all active counselors, optionally filtered by specialty.
+     *
+     * Only counselor ids are loaded. Schedules come from the schedule cache (misses are loaded
+     * together) and appointments are loaded in batches of counselor ids, one query per batch
+     * rather than per counselor. The calculation then runs in tasks of
+     * {@code mindcare.booking.open-slots.counselors-per-task} counselors on the search pool, the
+     * last one on the calling thread. Each counselor contributes at most {@code perCounselor}
+     * slots to the merged result.
+     */
+    public List<OpenSlot> findFirstAvailable(String specialty,
+                                             LocalDate from,
+                                             LocalDate to,
+                                             Integer slotMinutes,
+                                             int perCounselor,
+                                             int limit,
+                                             Long patientId) {
+        int length = resolveSlotMinutes(slotMinutes);
+        validateRange(from, to);
+        if (perCounselor < 1 || limit < 1) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "limit and perCounselor must be positive");
+        }
+
+        List<Long> counselors = userRepository.findActiveIds(User.Role.counselor,
+                specialty == null || specialty.isBlank() ? null : specialty.trim());
+        if (counselors.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, CompiledSchedule> schedules = new HashMap<>();
+        Map<Long, List<BookedSlot>> bookedByCounselor = new HashMap<>();
+        for (int i = 0; i < counselors.size(); i += ID_BATCH_SIZE) {
+            List<Long> ids = counselors.subList(i, Math.min(i + ID_BATCH_SIZE, counselors.size()));
+            schedules.putAll(scheduleCache.getAll(ids));
+            // Rows arrive sorted by counselor, date and time, so each per-counselor list stays sorted.
+            for (BookedSlot b : appointmentRepository.findActiveSlotsForCounselorsBetween(ids, from, to)) {
+                bookedByCounselor.computeIfAbsent(b.counselorId(), id -> new ArrayList<>()).add(b);
+            }
+        }
+        Set<Long> withHolds = new HashSet<>();
+        for (BookedSlot held : slotHolds.heldSlots(schedules.keySet(), from, to, patientId)) {
+            bookedByCounselor.computeIfAbsent(held.counselorId(), id -> new ArrayList<>()).add(held);
+            withHolds.add(held.counselorId());
+        }
+        for (Long id : withHolds) {
+            bookedByCounselor.get(id).sort(BY_DATE_AND_TIME);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> scheduled = counselors.stream().filter(id -> !schedules.get(id).isEmpty()).toList();
+        List<Future<List<OpenSlot>>> tasks = new ArrayList<>();
+        int last = scheduled.isEmpty() ? 0 : (scheduled.size() - 1) / counselorsPerTask * counselorsPerTask;
+        for (int i = 0; i < last; i += counselorsPerTask) {
+            List<Long> ids = scheduled.subList(i, i + counselorsPerTask);
+            tasks.add(executor.submit(() -> earliest(ids, schedules, bookedByCounselor, from, to, length, now, perCounselor, limit)));
+        }
+        List<OpenSlot> merged = new ArrayList<>(earliest(scheduled.subList(last, scheduled.size()),
+                schedules, bookedByCounselor, from, to, length, now, perCounselor, limit));
+        for (Future<List<OpenSlot>> task : tasks) {
+            merged.addAll(join(task));
+        }
+        return merged.stream()
+                .sorted(EARLIEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * The first {@code limit} open slots of the given counselors, earliest first.
+     */
+    private static List<OpenSlot> earliest(List<Long> counselorIds,
+                                           Map<Long, CompiledSchedule> schedules,
+                                           Map<Long, List<BookedSlot>> bookedByCounselor,
+                                           LocalDate from,
+                                           LocalDate to,
+                                           int length,
+                                           LocalDateTime now,
+                                           int perCounselor,
+                                           int limit) {
+        return counselorIds.stream()
+                .flatMap(id -> OpenSlotCalculator.calculate(
+                        id,
+                        schedules.get(id),
+                        bookedByCounselor.getOrDefault(id, List.of()),
+                        from,
+                        to,
+                        length,
+                        now,
+                        perCounselor
+                ).stream())
+                .sorted(EARLIEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<OpenSlot> join(Future<List<OpenSlot>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(HttpStatus.SERVICE_UNAVAILABLE, "Open slot search was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Adds other patients' holds to the booked slots, keeping the date/time order the calculator expects.
+     */
+    private List<BookedSlot> withHolds(List<BookedSlot> booked, List<Long> counselorIds, LocalDate from, LocalDate to, Long patientId) {
+        List<BookedSlot> held = slotHolds.heldSlots(counselorIds, from, to, patientId);
+        if (held.isEmpty()) {
+            return booked;
+        }
+        List<BookedSlot> merged = new ArrayList<>(booked.size() + held.size());
+        merged.addAll(booked);
+        merged.addAll(held);
+        merged.sort(BY_DATE_AND_TIME);
+        return merged;
+    }
+
+    int resolveSlotMinutes(Integer slotMinutes) {
+        int length = slotMinutes == null ? defaultSlotMinutes : slotMinutes;
+        if (length < 5 || length > 8 * 60) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "slotMinutes must be between 5 and 480");
+        }
+        return length;
+    }
+
+    void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
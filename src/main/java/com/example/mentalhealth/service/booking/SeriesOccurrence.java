@@ -0,0 +1,19 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.model.Appointment;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of one occurrence in a recurring booking: the saved appointment, or the reason
+ * it was rejected.
+ */
+public record SeriesOccurrence(
+        LocalDate appointmentDate,
+        Appointment appointment,
+        String error
+) {
+    public boolean booked() {
+        return appointment != null;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.repository.BookedSlot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived holds on a counselor slot while a patient confirms a booking.
+ *
+ * Each patient has at most one hold; placing a new one releases the previous one. Holds
+ * expire after {@code mindcare.booking.hold-ttl-seconds}. Reads check the expiry directly, so
+ * correctness never depends on the sweeper; memory is reclaimed in bulk by a hashed timing
+ * wheel that visits one bucket per second instead of running a timer per hold.
+ */
+@Service
+public class SlotHoldRegistry {
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_MILLIS = 1000;
+
+    private final long ttlMillis;
+    private final Map<SlotKey, SlotHold> holdsBySlot = new ConcurrentHashMap<>();
+    private final Map<Long, SlotHold> holdsByPatient = new ConcurrentHashMap<>();
+    private final Map<String, SlotHold> holdsById = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SlotHold>> holdsByCounselor = new ConcurrentHashMap<>();
+    private final Queue<SlotHold>[] wheel;
+    private final ScheduledExecutorService ticker;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public SlotHoldRegistry(@Value("${mindcare.booking.hold-ttl-seconds:300}") long ttlSeconds, MeterRegistry meterRegistry) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tick = System.currentTimeMillis() / TICK_MILLIS;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "slot-hold-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("mindcare.booking.holds.active", holdsById, Map::size)
+                .description("Slot holds currently reserved")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Reserves the slot for the patient. Fails with 409 if another patient holds it.
+     */
+    public SlotHold hold(Long patientId, Long counselorId, LocalDate date, LocalTime time) {
+        SlotKey key = new SlotKey(counselorId, date, time);
+        long now = System.currentTimeMillis();
+        SlotHold hold = new SlotHold(UUID.randomUUID().toString(), patientId, key, Instant.ofEpochMilli(now + ttlMillis));
+
+        holdsBySlot.compute(key, (k, existing) -> {
+            if (existing != null && existing.isActive(now) && !existing.patientId().equals(patientId)) {
+                throw new ApiException(HttpStatus.CONFLICT, "Time slot is on hold by another patient");
+            }
+            if (existing != null) {
+                holdsById.remove(existing.id());
+                unindex(existing);
+            }
+            return hold;
+        });
+        holdsById.put(hold.id(), hold);
+        holdsByCounselor.compute(counselorId, (id, holds) -> {
+            Set<SlotHold> result = holds != null ? holds : ConcurrentHashMap.newKeySet();
+            result.add(hold);
+            return result;
+        });
+
+        SlotHold previous = holdsByPatient.put(patientId, hold);
+        if (previous != null && !previous.key().equals(key)) {
+            remove(previous);
+        }
+
+        wheel[(int) Math.floorMod(hold.expiresAt().toEpochMilli() / TICK_MILLIS, (long) WHEEL_SIZE)].add(hold);
+        return hold;
+    }
+
+    public boolean release(String holdId, Long patientId) {
+        SlotHold hold = holdsById.get(holdId);
+        if (hold == null || !hold.patientId().equals(patientId)) {
+            return false;
+        }
+        remove(hold);
+        return true;
+    }
+
+    /**
+     * Drops the patient's hold on this slot, if any; called once the booking has been saved.
+     */
+    public void consume(Long patientId, Long counselorId, LocalDate date, LocalTime time) {
+        SlotHold hold = holdsByPatient.get(patientId);
+        if (hold != null && hold.key().equals(new SlotKey(counselorId, date, time))) {
+            remove(hold);
+        }
+    }
+
+    public boolean isHeldByOther(Long counselorId, LocalDate date, LocalTime time, Long patientId) {
+        SlotHold hold = holdsBySlot.get(new SlotKey(counselorId, date, time));
+        return hold != null && hold.isActive(System.currentTimeMillis()) && !hold.patientId().equals(patientId);
+    }
+
+    /**
+     * Active holds for the given counselors and dates, excluding the requesting patient's own hold,
+     * in the same shape as booked appointments so slot search can subtract them. Only the given
+     * counselors' holds are visited.
+     */
+    public List<BookedSlot> heldSlots(Collection<Long> counselorIds, LocalDate from, LocalDate to, Long excludePatientId) {
+        long now = System.currentTimeMillis();
+        List<BookedSlot> result = new ArrayList<>();
+        for (Long counselorId : counselorIds) {
+            Set<SlotHold> holds = holdsByCounselor.get(counselorId);
+            if (holds == null) {
+                continue;
+            }
+            for (SlotHold hold : holds) {
+                SlotKey key = hold.key();
+                if (hold.isActive(now)
+                        && !hold.patientId().equals(excludePatientId)
+                        && !key.date().isBefore(from) && !key.date().isAfter(to)) {
+                    result.add(new BookedSlot(key.counselorId(), key.date(), key.time()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void remove(SlotHold hold) {
+        holdsBySlot.remove(hold.key(), hold);
+        holdsByPatient.remove(hold.patientId(), hold);
+        holdsById.remove(hold.id(), hold);
+        unindex(hold);
+    }
+
+    private void unindex(SlotHold hold) {
+        holdsByCounselor.computeIfPresent(hold.key().counselorId(), (id, holds) -> {
+            holds.remove(hold);
+            return holds.isEmpty() ? null : holds;
+        });
+    }
+
+    /**
+     * Sweeps every bucket whose second has fully elapsed, expiring the holds in it. Holds whose
+     * deadline is one or more revolutions away are put back.
+     */
+    private void advance() {
+        long now = System.currentTimeMillis();
+        long target = now / TICK_MILLIS;
+        while (tick < target) {
+            Queue<SlotHold> bucket = wheel[(int) Math.floorMod(tick, (long) WHEEL_SIZE)];
+            int size = bucket.size();
+            for (int i = 0; i < size; i++) {
+                SlotHold hold = bucket.poll();
+                if (hold == null) {
+                    break;
+                }
+                if (hold.isActive(now)) {
+                    if (holdsById.get(hold.id()) == hold) {
+                        bucket.add(hold);
+                    }
+                } else {
+                    remove(hold);
+                }
+            }
+            tick++;
+        }
+    }
+
+    public record SlotKey(Long counselorId, LocalDate date, LocalTime time) {
+    }
+
+    public record SlotHold(String id, Long patientId, SlotKey key, Instant expiresAt) {
+        boolean isActive(long nowMillis) {
+            return expiresAt.toEpochMilli() > nowMillis;
+        }
+    }
+}
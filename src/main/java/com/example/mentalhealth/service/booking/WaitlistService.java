@@ -0,0 +1,158 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.Appointment;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.model.WaitlistEntry;
+import com.example.mentalhealth.repository.WaitlistEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-counselor cancellation waitlist.
+ *
+ * Patients join for a date range. When an appointment is canceled the freed slot is offered,
+ * first come first served, to the next patient waiting for that counselor and date, and booked
+ * for them through {@link AppointmentBookingService} so every booking rule still applies.
+ * Cancellations are handled one at a time, in commit order, on a single background thread.
+ * Entries of deactivated patients are passed over, and entries whose range has ended are marked
+ * expired every {@code mindcare.waitlist.expire-interval-ms}.
+ */
+@Service
+public class WaitlistService {
+    private final WaitlistEntryRepository waitlistRepository;
+    private final AppointmentBookingService bookingService;
+    private final ExecutorService dispatcher;
+    private final Counter refilled;
+    private final Counter unfilled;
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           AppointmentBookingService bookingService,
+                           MeterRegistry meterRegistry) {
+        this.waitlistRepository = waitlistRepository;
+        this.bookingService = bookingService;
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "waitlist-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.refilled = Counter.builder("mindcare.waitlist.dispatches")
+                .description("Canceled slots offered to the waitlist")
+                .tag("outcome", "booked")
+                .register(meterRegistry);
+        this.unfilled = Counter.builder("mindcare.waitlist.dispatches")
+                .description("Canceled slots offered to the waitlist")
+                .tag("outcome", "unfilled")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Adds the patient to the counselor's waitlist, or updates the range of their existing entry
+     * without losing their place.
+     */
+    public WaitlistEntry join(Patient patient, User counselor, LocalDate fromDate, LocalDate toDate) {
+        if (patient == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Patient profile not found");
+        }
+        if (counselor == null || counselor.getRole() != User.Role.counselor || !counselor.isActive()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Counselor not available");
+        }
+        if (fromDate == null || toDate == null) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "fromDate and toDate are required");
+        }
+        if (toDate.isBefore(fromDate) || toDate.isBefore(LocalDate.now())) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "toDate must not be before fromDate or in the past");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= OpenSlotService.MAX_RANGE_DAYS) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Date range must not exceed " + OpenSlotService.MAX_RANGE_DAYS + " days");
+        }
+
+        WaitlistEntry entry = waitlistRepository.findFirstByPatientAndCounselorAndStatus(patient, counselor, "waiting")
+                .orElseGet(WaitlistEntry::new);
+        entry.setPatient(patient);
+        entry.setCounselor(counselor);
+        entry.setFromDate(fromDate);
+        entry.setToDate(toDate);
+        return waitlistRepository.save(entry);
+    }
+
+    public List<WaitlistEntry> entriesFor(Patient patient) {
+        return waitlistRepository.findByPatientOrderByCreatedAtDesc(patient);
+    }
+
+    public WaitlistEntry withdraw(Patient patient, Long entryId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Waitlist entry not found"));
+        if (entry.getPatient() == null || !entry.getPatient().getId().equals(patient.getId())) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Access denied");
+        }
+        if ("waiting".equals(entry.getStatus())) {
+            entry.setStatus("withdrawn");
+            entry = waitlistRepository.save(entry);
+        }
+        return entry;
+    }
+
+    @Scheduled(fixedDelayString = "${mindcare.waitlist.expire-interval-ms:3600000}")
+    public void expireEnded() {
+        waitlistRepository.expireEndedBefore(LocalDate.now());
+    }
+
+    @EventListener
+    public void onAppointmentCanceled(AppointmentCanceledEvent event) {
+        dispatcher.execute(() -> refill(event));
+    }
+
+    void refill(AppointmentCanceledEvent event) {
+        if (event.counselorId() == null
+                || LocalDateTime.of(event.appointmentDate(), event.appointmentTime()).isBefore(LocalDateTime.now())) {
+            return;
+        }
+
+        for (WaitlistEntry candidate : waitlistRepository.findWaitingFor(event.counselorId(), event.appointmentDate())) {
+            if (candidate.getPatient().getId().equals(event.patientId())) {
+                // Don't hand the slot straight back to the patient who just gave it up.
+                continue;
+            }
+            // Re-read so an entry withdrawn since the query above is not booked.
+            WaitlistEntry entry = waitlistRepository.findById(candidate.getId()).orElse(null);
+            if (entry == null || !"waiting".equals(entry.getStatus())) {
+                continue;
+            }
+
+            Appointment appointment;
+            try {
+                appointment = bookingService.bookAppointment(entry.getPatient(), entry.getCounselor(),
+                        event.appointmentDate(), event.appointmentTime());
+            } catch (ApiException e) {
+                // Not every rejection is about the slot: one held by a later candidate is refused
+                // to everyone else, so keep going down the list.
+                continue;
+            }
+            entry.setStatus("booked");
+            entry.setBookedAppointmentId(appointment.getId());
+            waitlistRepository.save(entry);
+            refilled.increment();
+            return;
+        }
+        unfilled.increment();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.mentalhealth.service.mood;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of the mood entries in one day, week or month. Buckets without entries are omitted.
+ */
+public record MoodBucket(
+        LocalDate start,
+        LocalDate end,
+        int count,
+        int min,
+        int max,
+        double mean
+) {
+}
@@ -0,0 +1,155 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.PatientMoodStats;
+import com.example.mentalhealth.repository.MoodChange;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.MoodEntryWrite;
+import com.example.mentalhealth.repository.MoodPoint;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Service
+public class MoodEntryService {
+    /**
+     * Most edits one {@link #sync} call should be given; the batch is written in one transaction
+     * that holds the patient's stats lock throughout.
+     */
+    public static final int MAX_SYNC_ENTRIES = 500;
+    /**
+     * Most unseen changes one {@link #sync} call returns; the client pulls the rest from the
+     * returned watermark.
+     */
+    public static final int MAX_SYNC_CHANGES = 500;
+
+    private final MoodEntryRepository moodEntryRepository;
+    private final MoodStatsService moodStats;
+    private final MoodSeriesStore moodSeries;
+    private final TransactionTemplate transactionTemplate;
+
+    public MoodEntryService(MoodEntryRepository moodEntryRepository,
+                            MoodStatsService moodStats,
+                            MoodSeriesStore moodSeries,
+                            PlatformTransactionManager transactionManager) {
+        this.moodEntryRepository = moodEntryRepository;
+        this.moodStats = moodStats;
+        this.moodSeries = moodSeries;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates or replaces the patient's entry for {@code date} and updates their mood stats in the
+     * same transaction. The entry itself is one native upsert statement, so concurrent writes for
+     * the same day leave one row. The in-memory series is updated once the write has committed,
+     * in version order (see {@link MoodSeriesStore}).
+     */
+    public MoodEntry upsert(Patient patient, LocalDate date, int rating, String notes) {
+        MoodEntry entry = inTransaction(() -> {
+            PatientMoodStats stats = moodStats.lock(patient.getId());
+            long version = moodStats.nextVersions(stats, 1);
+            long id = moodEntryRepository.upsert(patient.getId(), new MoodEntryWrite(date, rating, notes, Instant.now(), version));
+            moodStats.apply(stats, List.of(new MoodPoint(patient.getId(), date, rating)));
+
+            MoodEntry written = new MoodEntry();
+            written.setId(id);
+            written.setPatient(patient);
+            written.setEntryDate(date);
+            written.setRating(rating);
+            written.setNotes(notes);
+            written.setSyncVersion(version);
+            return written;
+        });
+        moodSeries.record(patient.getId(), date, rating, entry.getSyncVersion());
+        return entry;
+    }
+
+    /**
+     * Applies a batch of offline edits (at most one per day and {@value #MAX_SYNC_ENTRIES} in
+     * all) in one transaction and one JDBC batch. A day already edited later on the server keeps
+     * the server's entry, and the edit is reported {@code stale}. Client edit times after the
+     * server clock are clamped to it, so a fast device clock cannot win every future conflict.
+     *
+     * The result also carries the entries changed after {@code since} that the client did not
+     * just send, at most {@value #MAX_SYNC_CHANGES} of them, and the watermark to pass as
+     * {@code since} next time. When changes were left over the watermark stops at the last one
+     * returned; the next call then also returns this batch's applied edits. An empty batch only
+     * pulls changes.
+     */
+    public MoodSyncResult sync(Patient patient, long since, List<MoodSyncEdit> edits) {
+        Instant now = Instant.now();
+        MoodSyncResult result = inTransaction(() -> {
+            PatientMoodStats stats = moodStats.lock(patient.getId());
+            long first = moodStats.nextVersions(stats, edits.size());
+
+            List<MoodEntryWrite> writes = new ArrayList<>(edits.size());
+            for (int i = 0; i < edits.size(); i++) {
+                MoodSyncEdit e = edits.get(i);
+                Instant editedAt = e.clientUpdatedAt().isAfter(now) ? now : e.clientUpdatedAt();
+                writes.add(new MoodEntryWrite(e.entryDate(), e.rating(), e.notes(), editedAt, first + i));
+            }
+            Map<LocalDate, MoodChange> won = new HashMap<>();
+            if (!writes.isEmpty()) {
+                moodEntryRepository.upsertIfNewer(patient.getId(), writes);
+                // Versions from `first` on were handed out under the lock just now, so those rows
+                // are exactly the edits that won.
+                List<MoodChange> written = moodEntryRepository.findChanges(patient.getId(), first - 1, Long.MAX_VALUE,
+                        Limit.of(writes.size()));
+                for (MoodChange c : written) {
+                    won.put(c.entryDate(), c);
+                }
+            }
+            // Anything older is a change the client has not seen.
+            List<MoodChange> unseen = since < first - 1
+                    ? moodEntryRepository.findChanges(patient.getId(), since, first - 1, Limit.of(MAX_SYNC_CHANGES))
+                    : List.of();
+            long watermark = unseen.size() == MAX_SYNC_CHANGES
+                    ? unseen.get(unseen.size() - 1).syncVersion()
+                    : stats.getSyncVersion();
+
+            List<MoodSyncResult.Outcome> outcomes = new ArrayList<>(edits.size());
+            List<MoodPoint> applied = new ArrayList<>(won.size());
+            for (MoodSyncEdit e : edits) {
+                MoodChange c = won.get(e.entryDate());
+                outcomes.add(new MoodSyncResult.Outcome(e.entryDate(), c != null, c == null ? 0 : c.syncVersion()));
+                if (c != null) {
+                    applied.add(new MoodPoint(patient.getId(), c.entryDate(), c.rating()));
+                }
+            }
+            if (!applied.isEmpty()) {
+                moodStats.apply(stats, applied);
+            }
+            return new MoodSyncResult(watermark, outcomes, unseen);
+        });
+
+        for (int i = 0; i < edits.size(); i++) {
+            if (result.outcomes().get(i).applied()) {
+                moodSeries.record(patient.getId(), edits.get(i).entryDate(), edits.get(i).rating(), result.outcomes().get(i).syncVersion());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs {@code work} in a transaction. A patient's first two concurrent writes can race to
+     * create the stats row; the loser is retried once and then finds the winner's row.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        try {
+            return transactionTemplate.execute(tx -> work.get());
+        } catch (DataIntegrityViolationException e) {
+            return transactionTemplate.execute(tx -> work.get());
+        }
+    }
+}
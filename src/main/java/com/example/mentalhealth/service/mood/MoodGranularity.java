@@ -0,0 +1,30 @@
+package com.example.mentalhealth.service.mood;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket size for mood trends. Weeks start on Monday; months on the first.
+ */
+public enum MoodGranularity {
+    day,
+    week,
+    month;
+
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case day -> date;
+            case week -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case month -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate bucketEnd(LocalDate start) {
+        return switch (this) {
+            case day -> start;
+            case week -> start.plusDays(6);
+            case month -> start.with(TemporalAdjusters.lastDayOfMonth());
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.model.PatientMoodStats;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.MoodPoint;
+import com.example.mentalhealth.repository.PatientMoodStatsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Hot tier for mood charts: each patient's whole rating history as a {@link PackedMoodSeries},
+ * loaded on first use (ratings only, never notes) and updated after every committed mood write.
+ * At most {@code mindcare.mood.series.max-patients} patients are held; evicted ones are reloaded
+ * on demand.
+ *
+ * Each series carries the patient's {@code sync_version} it is current to. A write is applied
+ * only if its version is newer; one that arrives after a newer write (commits are ordered by the
+ * patient's stats lock, but the calls here are not) drops the series so the next read reloads
+ * it. A write for a patient who is being loaded waits for the load (both run under Caffeine's
+ * per-key lock), and the load reads the version before the ratings, so it cannot hide a write.
+ *
+ * Writes made on other nodes are not seen here; a series is reloaded
+ * {@code mindcare.mood.series.ttl-seconds} after it was loaded, however often it is updated.
+ */
+@Service
+public class MoodSeriesStore {
+    // Cache node, boxed key and hash-table slot per cached patient.
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private final MoodEntryRepository moodEntryRepository;
+    private final PatientMoodStatsRepository moodStatsRepository;
+    private final TransactionTemplate readOnly;
+    private final Cache<Long, VersionedSeries> series;
+
+    public MoodSeriesStore(@Value("${mindcare.mood.series.max-patients:10000}") long maxPatients,
+                           @Value("${mindcare.mood.series.ttl-seconds:300}") long ttlSeconds,
+                           MoodEntryRepository moodEntryRepository,
+                           PatientMoodStatsRepository moodStatsRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.moodEntryRepository = moodEntryRepository;
+        this.moodStatsRepository = moodStatsRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.series = Caffeine.newBuilder()
+                .maximumSize(maxPatients)
+                // Timed from the load; applying a local write must not extend it.
+                .expireAfter(Expiry.creating((Long id, VersionedSeries s) -> ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, series, "mood-series");
+        Gauge.builder("mindcare.mood.series.bytes", this, MoodSeriesStore::estimatedBytes)
+                .description("Approximate heap held by cached mood series")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calls {@code action} for each of the patient's ratings in {@code [from, to]}, in date order.
+     * A history too wide to pack is streamed from the database instead.
+     */
+    void forEach(Long patientId, LocalDate from, LocalDate to, PackedMoodSeries.DayRating action) {
+        VersionedSeries cached = series.get(patientId, this::load);
+        if (cached != null) {
+            cached.series().forEach(from, to, action);
+            return;
+        }
+        readOnly.executeWithoutResult(tx -> {
+            try (Stream<MoodPoint> points = moodEntryRepository.streamPoints(patientId, from, to)) {
+                points.forEach(p -> action.accept(p.entryDate(), p.rating()));
+            }
+        });
+    }
+
+    /**
+     * Applies a committed write with its sync version. Patients not in memory are skipped; their
+     * next load reads it.
+     */
+    public void record(Long patientId, LocalDate date, int rating, long syncVersion) {
+        series.asMap().computeIfPresent(patientId, (id, s) -> {
+            if (syncVersion <= s.version()) {
+                // A newer write (or the load) got here first, and may or may not cover this day.
+                return null;
+            }
+            PackedMoodSeries updated = s.series().with(date, rating);
+            return updated == null ? null : new VersionedSeries(updated, syncVersion);
+        });
+    }
+
+    public void evict(Long patientId) {
+        series.invalidate(patientId);
+    }
+
+    public MoodSeriesUsage usage() {
+        return new MoodSeriesUsage(series.estimatedSize(), estimatedBytes());
+    }
+
+    private long estimatedBytes() {
+        long bytes = 0;
+        for (VersionedSeries s : series.asMap().values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + s.series().retainedBytes();
+        }
+        return bytes;
+    }
+
+    private VersionedSeries load(Long patientId) {
+        return readOnly.execute(tx -> {
+            // Version first: ratings committed after it are then re-applied, never skipped.
+            long version = moodStatsRepository.findById(patientId).map(PatientMoodStats::getSyncVersion).orElse(0L);
+            List<MoodPoint> points;
+            try (Stream<MoodPoint> stream = moodEntryRepository.streamPoints(patientId)) {
+                points = stream.toList();
+            }
+            PackedMoodSeries packed = PackedMoodSeries.of(points);
+            return packed == null ? null : new VersionedSeries(packed, version);
+        });
+    }
+
+    private record VersionedSeries(PackedMoodSeries series, long version) {
+    }
+}
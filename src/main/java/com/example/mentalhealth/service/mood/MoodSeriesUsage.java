@@ -0,0 +1,15 @@
+package com.example.mentalhealth.service.mood;
+
+/**
+ * Size of the in-memory mood series tier. {@code bytes} is an estimate of retained heap.
+ */
+public record MoodSeriesUsage(long patients, long bytes) {
+
+    public long bytesPerPatient() {
+        return patients == 0 ? 0 : bytes / patients;
+    }
+
+    public long bytesPer10kPatients() {
+        return bytesPerPatient() * 10_000;
+    }
+}
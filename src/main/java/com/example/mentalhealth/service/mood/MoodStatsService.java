@@ -0,0 +1,166 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.model.PatientMoodStats;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.MoodPoint;
+import com.example.mentalhealth.repository.MoodStatsRow;
+import com.example.mentalhealth.repository.PatientMoodStatsRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains {@link PatientMoodStats}: each mood write updates the patient's row in constant time,
+ * and dashboards read every patient's figures without touching {@code mood_entries}.
+ *
+ * Rows are created on a patient's first write. Patients whose entries predate the stats table
+ * get their row rebuilt from the last {@value MoodWindow#DAYS} days of entries the first time
+ * they are written or read.
+ */
+@Service
+public class MoodStatsService {
+    private static final double TREND_THRESHOLD = 0.5;
+
+    private final PatientMoodStatsRepository statsRepository;
+    private final MoodEntryRepository moodEntryRepository;
+    private final TransactionTemplate newTransaction;
+
+    public MoodStatsService(PatientMoodStatsRepository statsRepository,
+                            MoodEntryRepository moodEntryRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.moodEntryRepository = moodEntryRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Locks the patient's stats row for the rest of the transaction. Every mood write takes it
+     * before touching {@code mood_entries}, so one patient's writes apply, and their sync versions
+     * commit, in order. Before the patient's first write the row is rebuilt from their entries
+     * and inserted straight away; a concurrent first write then fails on the key and is retried.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PatientMoodStats lock(Long patientId) {
+        PatientMoodStats stats = statsRepository.findForUpdate(patientId).orElse(null);
+        if (stats == null) {
+            stats = statsRepository.saveAndFlush(rebuild(List.of(patientId), LocalDate.now()).get(patientId));
+        }
+        return stats;
+    }
+
+    /**
+     * Hands out {@code count} consecutive sync versions from a locked row; returns the first.
+     */
+    public long nextVersions(PatientMoodStats stats, int count) {
+        long first = stats.getSyncVersion() + 1;
+        stats.setSyncVersion(stats.getSyncVersion() + count);
+        return first;
+    }
+
+    /**
+     * Applies entries written under {@link #lock}, each new or replacing that day's rating.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(PatientMoodStats stats, List<MoodPoint> written) {
+        MoodWindow window = MoodWindow.decode(stats.getWindowEnd(), stats.getDailyRatings());
+        for (MoodPoint p : written) {
+            window.record(p.entryDate(), p.rating());
+            if (stats.getLatestDate() == null || !p.entryDate().isBefore(stats.getLatestDate())) {
+                stats.setLatestDate(p.entryDate());
+                stats.setLatestRating(p.rating());
+            }
+        }
+        stats.setWindowEnd(window.end());
+        stats.setDailyRatings(window.encode());
+    }
+
+    /**
+     * Figures for every patient in the counselor's working set, from one query. Missing rows are
+     * rebuilt and stored; if another request stores them first, the computed values are still
+     * returned.
+     */
+    public List<PatientMoodSummary> forCounselor(Long counselorId) {
+        LocalDate today = LocalDate.now();
+        List<MoodStatsRow> rows = statsRepository.findRowsForCounselor(counselorId);
+
+        List<Long> missing = rows.stream().filter(r -> r.windowEnd() == null).map(MoodStatsRow::patientId).toList();
+        Map<Long, PatientMoodStats> rebuilt = missing.isEmpty() ? Map.of() : rebuild(missing, today);
+        if (!rebuilt.isEmpty()) {
+            try {
+                newTransaction.executeWithoutResult(tx -> statsRepository.saveAll(rebuilt.values()));
+            } catch (DataIntegrityViolationException ignored) {
+                // A concurrent mood write created one of the rows; it will be read next time.
+            }
+        }
+
+        List<PatientMoodSummary> result = new ArrayList<>(rows.size());
+        for (MoodStatsRow row : rows) {
+            PatientMoodStats stats = rebuilt.get(row.patientId());
+            result.add(stats != null
+                    ? summarize(row.patientId(), stats.getLatestDate(), stats.getLatestRating(),
+                    MoodWindow.decode(stats.getWindowEnd(), stats.getDailyRatings()), today)
+                    : summarize(row.patientId(), row.latestDate(), row.latestRating(),
+                    MoodWindow.decode(row.windowEnd(), row.dailyRatings()), today));
+        }
+        return result;
+    }
+
+    private Map<Long, PatientMoodStats> rebuild(Collection<Long> patientIds, LocalDate today) {
+        Map<Long, MoodWindow> windows = new HashMap<>();
+        for (Long id : patientIds) {
+            windows.put(id, MoodWindow.empty(today));
+        }
+        for (MoodPoint p : moodEntryRepository.findPoints(patientIds, today.minusDays(MoodWindow.DAYS - 1), today)) {
+            windows.get(p.patientId()).record(p.entryDate(), p.rating());
+        }
+        Map<Long, MoodPoint> latest = new HashMap<>();
+        for (MoodPoint p : moodEntryRepository.findLatestPoints(patientIds)) {
+            latest.put(p.patientId(), p);
+        }
+
+        Map<Long, PatientMoodStats> result = new HashMap<>();
+        for (Long id : patientIds) {
+            MoodWindow window = windows.get(id);
+            MoodPoint last = latest.get(id);
+            if (last != null && last.entryDate().isAfter(window.end())) {
+                window.record(last.entryDate(), last.rating());
+            }
+            PatientMoodStats stats = new PatientMoodStats();
+            stats.setPatientId(id);
+            stats.setWindowEnd(window.end());
+            stats.setDailyRatings(window.encode());
+            if (last != null) {
+                stats.setLatestDate(last.entryDate());
+                stats.setLatestRating(last.rating());
+            }
+            result.put(id, stats);
+        }
+        return result;
+    }
+
+    private static PatientMoodSummary summarize(Long patientId, LocalDate latestDate, Integer latestRating, MoodWindow window, LocalDate today) {
+        MoodWindow.Span last7 = window.span(today, 7);
+        MoodWindow.Span previous7 = window.span(today.minusDays(7), 7);
+        MoodWindow.Span last30 = window.span(today, MoodWindow.DAYS);
+
+        String trend = null;
+        if (last7.count() > 0 && previous7.count() > 0) {
+            double delta = last7.mean() - previous7.mean();
+            trend = delta >= TREND_THRESHOLD ? "up" : delta <= -TREND_THRESHOLD ? "down" : "flat";
+        }
+        return new PatientMoodSummary(patientId, latestDate, latestRating,
+                last7.mean(), last7.count(), last30.mean(), last30.count(), trend);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.mentalhealth.service.mood;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A mood entry edited offline; {@code clientUpdatedAt} is when the patient made the edit.
+ */
+public record MoodSyncEdit(LocalDate entryDate, int rating, String notes, Instant clientUpdatedAt) {
+}
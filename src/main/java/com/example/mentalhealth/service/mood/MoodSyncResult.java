@@ -0,0 +1,17 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.repository.MoodChange;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of {@link MoodEntryService#sync}: one outcome per edit in request order, the entries
+ * the client has not seen yet, and the watermark to pull from next time. An applied edit carries
+ * the sync version it was written with.
+ */
+public record MoodSyncResult(long watermark, List<Outcome> outcomes, List<MoodChange> changes) {
+
+    public record Outcome(LocalDate entryDate, boolean applied, long syncVersion) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.mentalhealth.service.mood;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downsampled mood history for charts, folded in a single date-ordered pass over the patient's
+ * in-memory series (see {@link MoodSeriesStore}), so memory is bounded by the number of buckets
+ * and the mood table is only read when the series is first loaded.
+ */
+@Service
+public class MoodTrendService {
+    private final MoodSeriesStore moodSeriesStore;
+
+    public MoodTrendService(MoodSeriesStore moodSeriesStore) {
+        this.moodSeriesStore = moodSeriesStore;
+    }
+
+    public List<MoodBucket> buckets(Long patientId, LocalDate from, LocalDate to, MoodGranularity granularity) {
+        Folder folder = new Folder(granularity);
+        moodSeriesStore.forEach(patientId, from, to, folder::add);
+        return folder.finish();
+    }
+
+    private static final class Folder {
+        private final MoodGranularity granularity;
+        private final List<MoodBucket> result = new ArrayList<>();
+        private Accumulator current;
+
+        Folder(MoodGranularity granularity) {
+            this.granularity = granularity;
+        }
+
+        void add(LocalDate date, int rating) {
+            LocalDate start = granularity.bucketStart(date);
+            if (current == null || !current.start.equals(start)) {
+                if (current != null) {
+                    result.add(current.toBucket(granularity));
+                }
+                current = new Accumulator(start);
+            }
+            current.add(rating);
+        }
+
+        List<MoodBucket> finish() {
+            if (current != null) {
+                result.add(current.toBucket(granularity));
+            }
+            return result;
+        }
+    }
+
+    private static final class Accumulator {
+        private final LocalDate start;
+        private int count;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+        private long sum;
+
+        Accumulator(LocalDate start) {
+            this.start = start;
+        }
+
+        void add(int rating) {
+            count++;
+            min = Math.min(min, rating);
+            max = Math.max(max, rating);
+            sum += rating;
+        }
+
+        MoodBucket toBucket(MoodGranularity granularity) {
+            return new MoodBucket(start, granularity.bucketEnd(start), count, min, max, (double) sum / count);
+        }
+    }
+}
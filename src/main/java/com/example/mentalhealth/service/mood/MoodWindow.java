@@ -0,0 +1,97 @@
+package com.example.mentalhealth.service.mood;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * Ring of daily ratings for the {@value #DAYS} days ending at {@link #end()}.
+ *
+ * A day's slot is {@code epochDay mod DAYS}. Recording a later day clears the slots of the days
+ * skipped over (at most {@value #DAYS}) and moves the end forward; recording a day already in the
+ * window overwrites its slot, which is how a same-day upsert replaces the previous rating. Both
+ * are constant time. Stored as one base-36 character per day, {@code '0'} meaning no entry.
+ */
+final class MoodWindow {
+    static final int DAYS = 30;
+    private static final char EMPTY = '0';
+
+    private final char[] slots;
+    private LocalDate end;
+
+    private MoodWindow(LocalDate end, char[] slots) {
+        this.end = end;
+        this.slots = slots;
+    }
+
+    static MoodWindow empty(LocalDate end) {
+        char[] slots = new char[DAYS];
+        Arrays.fill(slots, EMPTY);
+        return new MoodWindow(end, slots);
+    }
+
+    static MoodWindow decode(LocalDate end, String encoded) {
+        if (encoded == null || encoded.length() != DAYS) {
+            return empty(end);
+        }
+        return new MoodWindow(end, encoded.toCharArray());
+    }
+
+    void record(LocalDate date, int rating) {
+        if (date.isAfter(end)) {
+            long gap = Math.min(DAYS, ChronoUnit.DAYS.between(end, date));
+            for (long i = 1; i <= gap; i++) {
+                slots[slot(end.plusDays(i))] = EMPTY;
+            }
+            end = date;
+        } else if (!contains(date)) {
+            return;
+        }
+        slots[slot(date)] = Character.forDigit(rating, 36);
+    }
+
+    /**
+     * Rating on {@code date}, or 0 if there is none or the day has left the window.
+     */
+    int rating(LocalDate date) {
+        return contains(date) ? Character.digit(slots[slot(date)], 36) : 0;
+    }
+
+    /**
+     * Count and sum of the ratings in the {@code days} days ending at {@code last}.
+     */
+    Span span(LocalDate last, int days) {
+        int count = 0;
+        int sum = 0;
+        for (int i = 0; i < days; i++) {
+            int r = rating(last.minusDays(i));
+            if (r > 0) {
+                count++;
+                sum += r;
+            }
+        }
+        return new Span(count, sum);
+    }
+
+    LocalDate end() {
+        return end;
+    }
+
+    String encode() {
+        return new String(slots);
+    }
+
+    private boolean contains(LocalDate date) {
+        return !date.isAfter(end) && date.isAfter(end.minusDays(DAYS));
+    }
+
+    private static int slot(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), (long) DAYS);
+    }
+
+    record Span(int count, int sum) {
+        Double mean() {
+            return count == 0 ? null : (double) sum / count;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.repository.MoodPoint;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One patient's daily ratings packed four bits per day, sixteen days per {@code long}, indexed
+ * by the day offset from the first entry; {@code 0} means no entry that day. A year of history
+ * is 23 words.
+ *
+ * Instances are immutable: {@link #with} returns a copy, so readers never see a half-applied
+ * write. Series wider than {@value #MAX_DAYS} days (a stray far-future date) are not packed.
+ */
+final class PackedMoodSeries {
+    static final int MAX_DAYS = 20 * 366;
+    static final PackedMoodSeries EMPTY = new PackedMoodSeries(null, new long[0], 0);
+
+    // Object header, fields and the LocalDate origin, with compressed oops.
+    private static final long FIXED_BYTES = 24 + 24 + 16;
+    private static final int DAYS_PER_WORD = 16;
+    private static final int BITS = 4;
+    private static final long MASK = 0xF;
+
+    private final LocalDate origin;
+    private final long[] words;
+    private final int days;
+
+    private PackedMoodSeries(LocalDate origin, long[] words, int days) {
+        this.origin = origin;
+        this.words = words;
+        this.days = days;
+    }
+
+    /**
+     * Packs points sorted by date; null if they span more than {@value #MAX_DAYS} days.
+     */
+    static PackedMoodSeries of(List<MoodPoint> points) {
+        if (points.isEmpty()) {
+            return EMPTY;
+        }
+        LocalDate first = points.get(0).entryDate();
+        long span = ChronoUnit.DAYS.between(first, points.get(points.size() - 1).entryDate()) + 1;
+        if (span > MAX_DAYS) {
+            return null;
+        }
+        long[] words = new long[wordsFor((int) span)];
+        for (MoodPoint p : points) {
+            put(words, (int) ChronoUnit.DAYS.between(first, p.entryDate()), p.rating());
+        }
+        return new PackedMoodSeries(first, words, (int) span);
+    }
+
+    int rating(LocalDate date) {
+        if (origin == null) {
+            return 0;
+        }
+        long offset = ChronoUnit.DAYS.between(origin, date);
+        return offset < 0 || offset >= days ? 0 : get(words, (int) offset);
+    }
+
+    /**
+     * A copy with {@code date} set to {@code rating}, growing the series at either end; null if
+     * that would make it wider than {@value #MAX_DAYS} days.
+     */
+    PackedMoodSeries with(LocalDate date, int rating) {
+        if (origin == null) {
+            long[] words = new long[1];
+            put(words, 0, rating);
+            return new PackedMoodSeries(date, words, 1);
+        }
+        long offset = ChronoUnit.DAYS.between(origin, date);
+        if (offset >= 0 && offset < days) {
+            long[] copy = words.clone();
+            put(copy, (int) offset, rating);
+            return new PackedMoodSeries(origin, copy, days);
+        }
+        if (offset >= days) {
+            if (offset >= MAX_DAYS) {
+                return null;
+            }
+            long[] grown = Arrays.copyOf(words, wordsFor((int) offset + 1));
+            put(grown, (int) offset, rating);
+            return new PackedMoodSeries(origin, grown, (int) offset + 1);
+        }
+        // Backfill before the first entry: every existing day moves up by the shift.
+        long shift = -offset;
+        if (shift + days > MAX_DAYS) {
+            return null;
+        }
+        int newDays = (int) shift + days;
+        long[] shifted = new long[wordsFor(newDays)];
+        for (int i = 0; i < days; i++) {
+            put(shifted, i + (int) shift, get(words, i));
+        }
+        put(shifted, 0, rating);
+        return new PackedMoodSeries(date, shifted, newDays);
+    }
+
+    /**
+     * Calls {@code action} for each day with an entry in {@code [from, to]}, in date order.
+     */
+    void forEach(LocalDate from, LocalDate to, DayRating action) {
+        if (origin == null) {
+            return;
+        }
+        long start = Math.max(0, ChronoUnit.DAYS.between(origin, from));
+        long end = Math.min(days - 1L, ChronoUnit.DAYS.between(origin, to));
+        for (long i = start; i <= end; i++) {
+            int rating = get(words, (int) i);
+            if (rating != 0) {
+                action.accept(origin.plusDays(i), rating);
+            }
+        }
+    }
+
+    /**
+     * Approximate heap retained by this series.
+     */
+    long retainedBytes() {
+        return FIXED_BYTES + 8L * words.length;
+    }
+
+    private static int wordsFor(int days) {
+        return (days + DAYS_PER_WORD - 1) / DAYS_PER_WORD;
+    }
+
+    private static int get(long[] words, int offset) {
+        return (int) ((words[offset / DAYS_PER_WORD] >>> (offset % DAYS_PER_WORD * BITS)) & MASK);
+    }
+
+    private static void put(long[] words, int offset, int rating) {
+        int shift = offset % DAYS_PER_WORD * BITS;
+        int index = offset / DAYS_PER_WORD;
+        words[index] = (words[index] & ~(MASK << shift)) | ((rating & MASK) << shift);
+    }
+
+    @FunctionalInterface
+    interface DayRating {
+        void accept(LocalDate date, int rating);
+    }
+}
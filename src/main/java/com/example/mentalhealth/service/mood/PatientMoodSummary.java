@@ -0,0 +1,20 @@
+package com.example.mentalhealth.service.mood;
+
+import java.time.LocalDate;
+
+/**
+ * Dashboard figures for one patient. Means are null when there are no entries in the span;
+ * {@code trend} compares the last 7 days with the 7 before them ({@code up}, {@code down},
+ * {@code flat}) and is null unless both weeks have entries.
+ */
+public record PatientMoodSummary(
+        Long patientId,
+        LocalDate latestDate,
+        Integer latestRating,
+        Double mean7,
+        int count7,
+        Double mean30,
+        int count30,
+        String trend
+) {
+}
@@ -0,0 +1,62 @@
+package com.example.mentalhealth.web;
+
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.service.SessionAuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} and {@link CurrentPatient} parameters through
+ * {@link SessionAuthService}. The result is kept as a request attribute, so a request that
+ * needs the identity in several places looks it up once.
+ */
+public class CurrentIdentityArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String USER_ATTRIBUTE = CurrentIdentityArgumentResolver.class.getName() + ".user";
+    private static final String PATIENT_ATTRIBUTE = CurrentIdentityArgumentResolver.class.getName() + ".patient";
+
+    private final SessionAuthService auth;
+
+    public CurrentIdentityArgumentResolver(SessionAuthService auth) {
+        this.auth = auth;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return (parameter.hasParameterAnnotation(CurrentUser.class) && parameter.getParameterType() == User.class)
+                || (parameter.hasParameterAnnotation(CurrentPatient.class) && parameter.getParameterType() == Patient.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpSession session = request == null ? null : request.getSession(false);
+
+        if (parameter.hasParameterAnnotation(CurrentPatient.class)) {
+            Patient patient = (Patient) webRequest.getAttribute(PATIENT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (patient == null) {
+                patient = auth.requirePatient(session);
+                webRequest.setAttribute(PATIENT_ATTRIBUTE, patient, RequestAttributes.SCOPE_REQUEST);
+                webRequest.setAttribute(USER_ATTRIBUTE, patient.getUser(), RequestAttributes.SCOPE_REQUEST);
+            }
+            return patient;
+        }
+
+        User user = (User) webRequest.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = auth.requireLogin(session);
+            webRequest.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        User.Role[] roles = parameter.getParameterAnnotation(CurrentUser.class).value();
+        return roles.length == 0 ? user : auth.requireAnyRole(user, roles);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.mentalhealth.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the logged-in patient's {@link com.example.mentalhealth.model.Patient} profile into a
+ * handler method. Requires the patient role; the user is available through {@code getUser()}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentPatient {
+}
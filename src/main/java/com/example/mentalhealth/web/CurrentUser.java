@@ -0,0 +1,18 @@
+package com.example.mentalhealth.web;
+
+import com.example.mentalhealth.model.User;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the logged-in {@link User} into a handler method, resolved once per request.
+ * With roles given the user must have one of them, as with {@code SessionAuthService.requireAnyRole}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+    User.Role[] value() default {};
+}
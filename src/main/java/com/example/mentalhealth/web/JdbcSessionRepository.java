@@ -0,0 +1,290 @@
+package com.example.mentalhealth.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores {@code HttpSession} state in the {@code http_sessions} table (created by the schema
+ * migrations) so every node sees the same sessions. Enabled with {@code mindcare.session.store=jdbc}.
+ *
+ * A request that only touches the session does not write: its last-access time is kept in memory
+ * (latest value per session wins) and flushed with one batched update every
+ * {@code mindcare.session.jdbc.flush-interval-ms}. Attribute, timeout and id changes are written
+ * immediately. A sweeper deletes expired rows in chunks of {@code mindcare.session.jdbc.sweep-chunk-size},
+ * leaving a grace period of two flush intervals so a pending touch is never swept.
+ */
+public class JdbcSessionRepository implements SessionRepository<JdbcSessionRepository.JdbcSession> {
+    private static final String INSERT =
+            "INSERT INTO http_sessions (id, created_at, last_accessed_at, max_inactive_seconds, expires_at, attributes) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE =
+            "UPDATE http_sessions SET id = ?, last_accessed_at = ?, max_inactive_seconds = ?, expires_at = ?, attributes = ? WHERE id = ?";
+    private static final String SELECT =
+            "SELECT id, created_at, last_accessed_at, max_inactive_seconds, attributes FROM http_sessions WHERE id = ?";
+    private static final String DELETE = "DELETE FROM http_sessions WHERE id = ?";
+    // Never moves a session's access time backwards if another node flushed a later one.
+    private static final String TOUCH =
+            "UPDATE http_sessions SET last_accessed_at = ?, expires_at = ? + CAST(max_inactive_seconds AS BIGINT) * 1000 WHERE id = ? AND last_accessed_at < ?";
+    private static final String SWEEP =
+            "DELETE FROM http_sessions WHERE id IN (SELECT id FROM http_sessions WHERE expires_at < ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration defaultMaxInactive;
+    private final long sweepGraceMillis;
+    private final int sweepChunkSize;
+    private final Map<String, Long> pendingAccess = new ConcurrentHashMap<>();
+    private final Counter flushedTouches;
+    private final Counter sweptSessions;
+
+    public JdbcSessionRepository(JdbcTemplate jdbcTemplate,
+                                 Duration defaultMaxInactive,
+                                 long flushIntervalMillis,
+                                 int sweepChunkSize,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultMaxInactive = defaultMaxInactive;
+        this.sweepGraceMillis = 2 * flushIntervalMillis;
+        this.sweepChunkSize = sweepChunkSize;
+        this.flushedTouches = Counter.builder("mindcare.session.touches.flushed")
+                .description("Last-access updates written to the session table")
+                .register(meterRegistry);
+        this.sweptSessions = Counter.builder("mindcare.session.swept")
+                .description("Expired sessions deleted by the sweeper")
+                .register(meterRegistry);
+        Gauge.builder("mindcare.session.touches.pending", pendingAccess, Map::size)
+                .description("Sessions with a last-access update waiting for the next flush")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public JdbcSession createSession() {
+        MapSession delegate = new MapSession();
+        delegate.setMaxInactiveInterval(defaultMaxInactive);
+        return new JdbcSession(delegate, true);
+    }
+
+    @Override
+    public void save(JdbcSession session) {
+        MapSession delegate = session.delegate;
+        if (session.isNew) {
+            jdbcTemplate.update(INSERT,
+                    delegate.getId(),
+                    delegate.getCreationTime().toEpochMilli(),
+                    delegate.getLastAccessedTime().toEpochMilli(),
+                    (int) delegate.getMaxInactiveInterval().toSeconds(),
+                    expiresAt(delegate),
+                    serialize(delegate));
+        } else if (session.changed || !delegate.getId().equals(session.originalId)) {
+            pendingAccess.remove(session.originalId);
+            jdbcTemplate.update(UPDATE,
+                    delegate.getId(),
+                    delegate.getLastAccessedTime().toEpochMilli(),
+                    (int) delegate.getMaxInactiveInterval().toSeconds(),
+                    expiresAt(delegate),
+                    serialize(delegate),
+                    session.originalId);
+        } else if (session.touched) {
+            pendingAccess.merge(delegate.getId(), delegate.getLastAccessedTime().toEpochMilli(), Math::max);
+        }
+        session.markSaved();
+    }
+
+    @Override
+    public JdbcSession findById(String id) {
+        List<JdbcSession> rows = jdbcTemplate.query(SELECT, (rs, n) -> {
+            MapSession delegate = new MapSession(rs.getString("id"));
+            delegate.setCreationTime(Instant.ofEpochMilli(rs.getLong("created_at")));
+            delegate.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_accessed_at")));
+            delegate.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+            deserialize(rs.getBytes("attributes")).forEach(delegate::setAttribute);
+            return new JdbcSession(delegate, false);
+        }, id);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        JdbcSession session = rows.get(0);
+        Long pending = pendingAccess.get(id);
+        if (pending != null && pending > session.delegate.getLastAccessedTime().toEpochMilli()) {
+            session.delegate.setLastAccessedTime(Instant.ofEpochMilli(pending));
+        }
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingAccess.remove(id);
+        jdbcTemplate.update(DELETE, id);
+    }
+
+    /**
+     * Writes the coalesced last-access times in one batch. An entry that was touched again while
+     * the batch ran stays queued for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${mindcare.session.jdbc.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flushAccessTimes() {
+        if (pendingAccess.isEmpty()) {
+            return;
+        }
+        Map<String, Long> batch = new HashMap<>(pendingAccess);
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Map.Entry<String, Long> e : batch.entrySet()) {
+            args.add(new Object[]{e.getValue(), e.getValue(), e.getKey(), e.getValue()});
+        }
+        jdbcTemplate.batchUpdate(TOUCH, args);
+        batch.forEach(pendingAccess::remove);
+        flushedTouches.increment(batch.size());
+    }
+
+    @Scheduled(fixedDelayString = "${mindcare.session.jdbc.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long cutoff = System.currentTimeMillis() - sweepGraceMillis;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(SWEEP, cutoff, sweepChunkSize);
+            sweptSessions.increment(deleted);
+        } while (deleted >= sweepChunkSize);
+    }
+
+    private static long expiresAt(MapSession session) {
+        return session.getLastAccessedTime().plus(session.getMaxInactiveInterval()).toEpochMilli();
+    }
+
+    private static byte[] serialize(MapSession session) {
+        HashMap<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Session attributes must be serializable", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Serializable> deserialize(byte[] data) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Map<String, Serializable>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Unreadable session attributes", e);
+        }
+    }
+
+    /**
+     * Tracks whether a loaded session only had its access time bumped (coalesced) or was
+     * modified in a way that must be written through.
+     */
+    public static final class JdbcSession implements Session {
+        private final MapSession delegate;
+        private boolean isNew;
+        private boolean changed;
+        private boolean touched;
+        private String originalId;
+
+        JdbcSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.originalId = delegate.getId();
+        }
+
+        private void markSaved() {
+            isNew = false;
+            changed = false;
+            touched = false;
+            originalId = delegate.getId();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changed = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changed = true;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+            touched = true;
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changed = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
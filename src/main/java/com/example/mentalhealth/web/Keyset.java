@@ -0,0 +1,93 @@
+package com.example.mentalhealth.web;
+
+import com.example.mentalhealth.exception.ApiException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor pagination for list endpoints.
+ *
+ * A list is ordered by a unique key and each page is read with {@code key > cursor}, so a deep
+ * page costs the same index range scan as the first one (no OFFSET). The response body stays a
+ * plain JSON array; when more rows follow, the cursor for the next page is returned in the
+ * {@value #NEXT_CURSOR_HEADER} header and passed back as {@code ?cursor=}. Cursors are opaque
+ * to clients: the key parts joined with {@code |} and base64url-encoded.
+ */
+public final class Keyset {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+    // Open ends of optional date-range filters.
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private Keyset() {
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1 || requested > MAX_LIMIT) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        return requested;
+    }
+
+    /**
+     * One more row than the page holds, so {@link #page} can tell whether another page follows.
+     */
+    public static Limit fetchLimit(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(parts[i]);
+        }
+        return ENCODER.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode} with {@code parts} key parts; 400 if it is
+     * malformed or a part does not parse.
+     */
+    public static <T> T decode(String cursor, int parts, Function<String[], T> parser) {
+        try {
+            String[] decoded = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (decoded.length == parts) {
+                return parser.apply(decoded);
+            }
+        } catch (RuntimeException ignored) {
+            // fall through
+        }
+        throw new ApiException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+
+    /**
+     * Trims a result fetched with {@link #fetchLimit} to the page size and, if rows were left
+     * over, sets the next-page cursor from the last row kept.
+     */
+    public static <T> List<T> page(List<T> rows, int limit, HttpServletResponse response, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return rows;
+        }
+        List<T> page = rows.subList(0, limit);
+        response.setHeader(NEXT_CURSOR_HEADER, cursorOf.apply(page.get(limit - 1)));
+        return page;
+    }
+}
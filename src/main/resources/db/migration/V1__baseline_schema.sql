@@ -0,0 +1,129 @@
+-- Baseline schema. Runs on PostgreSQL and H2.
+--
+-- Databases previously managed by ddl-auto=update already have the original tables; Flyway
+-- baselines them at version 0 and runs this script against them. CREATE TABLE IF NOT EXISTS only
+-- covers whole tables, so columns and constraints added since then are applied as separate
+-- statements below, and existing rows are cleaned up before the unique indexes are built.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    name VARCHAR(100),
+    specialty VARCHAR(100),
+    role VARCHAR(20),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS patients (
+    user_id BIGINT PRIMARY KEY REFERENCES users (id),
+    emergency_contact VARCHAR(100),
+    assigned_counselor_id BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS appointments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL REFERENCES patients (user_id),
+    counselor_id BIGINT NOT NULL REFERENCES users (id),
+    appointment_date DATE NOT NULL,
+    appointment_time TIME NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS availability (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    counselor_id BIGINT NOT NULL REFERENCES users (id),
+    day_of_week INTEGER,
+    start_time TIME,
+    end_time TIME
+);
+
+CREATE TABLE IF NOT EXISTS mood_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL REFERENCES patients (user_id),
+    rating INTEGER NOT NULL,
+    notes TEXT,
+    entry_date DATE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS profile_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    description VARCHAR(200) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS waitlist_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL REFERENCES patients (user_id),
+    counselor_id BIGINT NOT NULL REFERENCES users (id),
+    from_date DATE NOT NULL,
+    to_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    booked_appointment_id BIGINT,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS token_revocations (
+    user_id BIGINT PRIMARY KEY,
+    revoked_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS http_sessions (
+    id VARCHAR(64) PRIMARY KEY,
+    created_at BIGINT NOT NULL,
+    last_accessed_at BIGINT NOT NULL,
+    max_inactive_seconds INTEGER NOT NULL,
+    expires_at BIGINT NOT NULL,
+    attributes BYTEA NOT NULL
+);
+
+-- active_slot is TRUE for live appointments and NULL once canceled, so at most one
+-- non-canceled appointment can hold a counselor's slot.
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS active_slot BOOLEAN;
+
+-- Rows written before active_slot existed. Slots double-booked back then stay listed, but only
+-- the earliest live booking holds the slot; otherwise the unique index below could not be built.
+UPDATE appointments SET active_slot = TRUE
+WHERE active_slot IS NULL AND status <> 'canceled'
+  AND NOT EXISTS (SELECT 1 FROM appointments e
+                  WHERE e.counselor_id = appointments.counselor_id
+                    AND e.appointment_date = appointments.appointment_date
+                    AND e.appointment_time = appointments.appointment_time
+                    AND e.status <> 'canceled'
+                    AND e.id < appointments.id);
+
+-- Also serves counselor day views, conflict checks and open-slot range scans through its
+-- (counselor_id, appointment_date, appointment_time) prefix.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_appointments_active_slot
+    ON appointments (counselor_id, appointment_date, appointment_time, active_slot);
+
+-- Same-day mood entries written before the unique index existed: keep the newest.
+DELETE FROM mood_entries
+WHERE EXISTS (SELECT 1 FROM mood_entries n
+              WHERE n.patient_id = mood_entries.patient_id
+                AND n.entry_date = mood_entries.entry_date
+                AND n.id > mood_entries.id);
+-- Patient appointment lists, ordered by date and time.
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_slot
+    ON appointments (patient_id, appointment_date, appointment_time);
+-- One mood entry per patient and day; also serves the patient history scan.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_mood_entries_patient_date
+    ON mood_entries (patient_id, entry_date);
+CREATE INDEX IF NOT EXISTS idx_availability_counselor_day
+    ON availability (counselor_id, day_of_week);
+CREATE INDEX IF NOT EXISTS idx_patients_assigned_counselor
+    ON patients (assigned_counselor_id);
+CREATE INDEX IF NOT EXISTS idx_profile_changes_user
+    ON profile_changes (user_id);
+CREATE INDEX IF NOT EXISTS idx_waitlist_counselor_status
+    ON waitlist_entries (counselor_id, status, created_at);
+CREATE INDEX IF NOT EXISTS idx_waitlist_patient
+    ON waitlist_entries (patient_id);
+CREATE INDEX IF NOT EXISTS idx_token_revocations_revoked_at
+    ON token_revocations (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_http_sessions_expires_at
+    ON http_sessions (expires_at);
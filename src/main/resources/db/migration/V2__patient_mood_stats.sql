@@ -0,0 +1,12 @@
+-- Per-patient mood summary maintained on every mood upsert. Rows are created on first use
+-- (or rebuilt from mood_entries when missing), so no backfill is needed here.
+CREATE TABLE IF NOT EXISTS patient_mood_stats (
+    patient_id BIGINT PRIMARY KEY REFERENCES patients (user_id),
+    latest_date DATE,
+    latest_rating INTEGER,
+    window_end DATE NOT NULL,
+    -- One character per day for the 30 days ending at window_end, indexed by epoch day mod 30:
+    -- '0' for no entry, otherwise the rating as a base-36 digit (1-9, a = 10).
+    daily_ratings VARCHAR(30) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
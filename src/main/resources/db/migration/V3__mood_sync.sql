@@ -0,0 +1,11 @@
+-- Offline mood sync: last-writer-wins on the client's edit time, and a per-patient change
+-- counter so clients can pull only entries they have not seen.
+--
+-- Versions are assigned from patient_mood_stats.sync_version under that row's lock. Entries
+-- written before this migration all get version 1, which is also where existing counters start.
+ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS client_updated_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE mood_entries ADD COLUMN IF NOT EXISTS sync_version BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE patient_mood_stats ADD COLUMN IF NOT EXISTS sync_version BIGINT NOT NULL DEFAULT 1;
+
+CREATE INDEX IF NOT EXISTS idx_mood_entries_patient_version
+    ON mood_entries (patient_id, sync_version);
@@ -0,0 +1,48 @@
+-- Appointment change feed. Every insert or update of an appointment takes the next value of
+-- appointment_change_counter as its change_version; deleted appointments leave a tombstone with
+-- its own version, so clients holding ?since=<version> also learn about removals.
+--
+-- A version is drawn in a short transaction of its own, which bumps the counter and records the
+-- version in appointment_changes_in_flight; the writer deletes that row once it commits or rolls
+-- back. Writers therefore do not wait on each other, and versions may commit out of order, so
+-- readers stop below the lowest version still in flight. Tombstones older than the retention
+-- period are deleted; pruned_through is the highest version removed, and older ?since values
+-- get 410.
+--
+-- Rows written before this migration keep version 0: clients start from a full list, which
+-- reports the current version to continue from.
+CREATE TABLE IF NOT EXISTS appointment_change_counter (
+    id INTEGER PRIMARY KEY,
+    version BIGINT NOT NULL,
+    pruned_through BIGINT NOT NULL
+);
+INSERT INTO appointment_change_counter (id, version, pruned_through)
+SELECT 1, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM appointment_change_counter);
+
+CREATE TABLE IF NOT EXISTS appointment_changes_in_flight (
+    version BIGINT PRIMARY KEY,
+    started_at TIMESTAMP(6) NOT NULL
+);
+
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS appointment_tombstones (
+    appointment_id BIGINT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    counselor_id BIGINT NOT NULL,
+    change_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL
+);
+
+-- Change feeds scan (owner, change_version) ranges.
+CREATE INDEX IF NOT EXISTS idx_appointments_counselor_change
+    ON appointments (counselor_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_change
+    ON appointments (patient_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_appointment_tombstones_counselor_change
+    ON appointment_tombstones (counselor_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_appointment_tombstones_patient_change
+    ON appointment_tombstones (patient_id, change_version);
+-- Retention sweep.
+CREATE INDEX IF NOT EXISTS idx_appointment_tombstones_deleted_at
+    ON appointment_tombstones (deleted_at);
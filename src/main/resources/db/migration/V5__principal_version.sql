@@ -0,0 +1,14 @@
+-- Bumped whenever a user's role, status or profile changes, so every node can tell that its
+-- cached principal for the user is stale without waiting for the cache to expire.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS principal_version BIGINT NOT NULL DEFAULT 0;
+
+-- The latest bump per user, which every node polls to drop principals cached at an older
+-- version. Rows outlive the user they describe, so deletions reach other nodes too, and are
+-- removed once no cache can still hold an entry from before the change.
+CREATE TABLE IF NOT EXISTS principal_changes (
+    user_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_principal_changes_changed_at
+    ON principal_changes (changed_at);
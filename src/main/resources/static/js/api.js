@@ -6,8 +6,13 @@
  * - throws Error on non-2xx responses with `err.status` + `err.data` attached
  * - uses `credentials: 'same-origin'` so session cookies work with Spring Boot sessions
  */
+import { state } from './state.js';
+
 const API_BASE = '/api';
 
+/** @type {Map<string, {version: string, items: Map<number, any>}>} */
+const feeds = new Map();
+
 /**
  * Call a backend API endpoint.
  * @template T
@@ -16,6 +21,86 @@ const API_BASE = '/api';
  * @returns {Promise<T>}
  */
 export async function api(path, { method = 'GET', body } = {}) {
+  const { data } = await send(path, { method, body });
+  return data;
+}
+
+/**
+ * Fetch one page of a cursor-paginated list endpoint.
+ * The server returns the next page's cursor in the `X-Next-Cursor` header; it is `null` on the
+ * last page.
+ * @template T
+ * @param {string} path path relative to `/api`, may already carry a query string
+ * @param {string|null} [cursor] cursor of the page to read; the first page when omitted
+ * @returns {Promise<{items: T[], next: string|null}>}
+ */
+export async function apiPage(path, cursor = null) {
+  const sep = path.includes('?') ? '&' : '?';
+  const { data, resp } = await send(cursor ? `${path}${sep}cursor=${encodeURIComponent(cursor)}` : path, {});
+  return { items: data || [], next: resp.headers.get('X-Next-Cursor') };
+}
+
+/** Page size for change-feed reads; a page this full may be followed by more. */
+const FEED_LIMIT = 500;
+
+/**
+ * Keep a local copy of an appointment list and refresh it from the server's change feed.
+ * The first call loads the full list (its first page carries the change version in
+ * `X-Change-Version`); later calls only ask for `?since=<version>` and apply the changed rows
+ * and `deleted` tombstones. If the server no longer keeps changes that old (410), the list is
+ * reloaded in full. Items come back ordered by date, time and id.
+ * @param {string} path list endpoint relative to `/api`, without a query string
+ * @returns {Promise<any[]>}
+ */
+export async function apiFeed(path) {
+  const key = `${state.me?.id}:${path}`;
+  let feed = feeds.get(key);
+  if (feed) {
+    try {
+      await pullChanges(path, feed);
+    } catch (err) {
+      if (err.status !== 410) throw err;
+      feeds.delete(key);
+      feed = null;
+    }
+  }
+  if (!feed) {
+    feed = await loadFeed(path);
+    feeds.set(key, feed);
+  }
+  return [...feed.items.values()].sort((a, b) =>
+    a.appointmentDate.localeCompare(b.appointmentDate)
+    || String(a.appointmentTime).localeCompare(String(b.appointmentTime))
+    || a.id - b.id);
+}
+
+async function loadFeed(path) {
+  const items = new Map();
+  let version = null;
+  let cursor = null;
+  do {
+    const { data, resp } = await send(cursor ? `${path}?cursor=${encodeURIComponent(cursor)}` : path, {});
+    for (const item of data || []) items.set(item.id, item);
+    version ??= resp.headers.get('X-Change-Version');
+    cursor = resp.headers.get('X-Next-Cursor');
+  } while (cursor);
+  return { version, items };
+}
+
+async function pullChanges(path, feed) {
+  let changes;
+  do {
+    const { data, resp } = await send(`${path}?since=${encodeURIComponent(feed.version)}&limit=${FEED_LIMIT}`, {});
+    changes = data || [];
+    for (const item of changes) {
+      if (item.deleted) feed.items.delete(item.id);
+      else feed.items.set(item.id, item);
+    }
+    feed.version = resp.headers.get('X-Change-Version');
+  } while (changes.length === FEED_LIMIT);
+}
+
+async function send(path, { method = 'GET', body }) {
   const opts = {
     method,
     headers: {
@@ -48,5 +133,5 @@ export async function api(path, { method = 'GET', body } = {}) {
     throw err;
   }
 
-  return data;
+  return { data, resp };
 }
@@ -0,0 +1,51 @@
+/**
+ * Mood history reads that only fetch what a page shows.
+ */
+import { api } from './api.js';
+
+/** Largest page the list endpoints serve. */
+const MAX_PAGE = 500;
+
+/**
+ * Totals and the latest entries of a mood history, without reading the whole history.
+ * Totals come from its month buckets (`granularity=month`); the latest `count` entries are read
+ * from the start of the earliest month needed to cover them, so at most about a month more
+ * than `count` entries are transferred.
+ * @param {string} path mood list endpoint relative to `/api`, without a query string
+ * @param {number} count how many of the latest entries to return
+ * @returns {Promise<{total: number, avg: string, highest: number, lowest: number, recent: any[]}>}
+ */
+export async function fetchMoodSummary(path, count) {
+  const months = (await api(`${path}?granularity=month`)) || [];
+  if (!months.length) {
+    return { total: 0, avg: '0', highest: 0, lowest: 0, recent: [] };
+  }
+
+  let total = 0;
+  let sum = 0;
+  let highest = 0;
+  let lowest = 10;
+  for (const m of months) {
+    total += m.count;
+    sum += m.mean * m.count;
+    highest = Math.max(highest, m.max);
+    lowest = Math.min(lowest, m.min);
+  }
+
+  let from = null;
+  let covered = 0;
+  for (let i = months.length - 1; i >= 0 && covered < count; i--) {
+    from = months[i].start;
+    covered += months[i].count;
+  }
+  // The range holds about `covered` entries; the page cap only matters if it grew meanwhile.
+  const entries = (await api(`${path}?from=${from}&limit=${MAX_PAGE}`)) || [];
+
+  return {
+    total,
+    avg: (sum / total).toFixed(1),
+    highest,
+    lowest,
+    recent: entries.slice(-count),
+  };
+}
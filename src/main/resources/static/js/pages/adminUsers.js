@@ -1,7 +1,10 @@
-import { api } from '../api.js';
+import { api, apiPage } from '../api.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole, toast } from '../ui.js';
 
+/** Users listed per page; role and status filter on the server, search within the page. */
+const USERS_PAGE_SIZE = 50;
+
 function includesText(haystack, needle) {
   const h = (haystack ?? '').toString().toLowerCase();
   const n = (needle ?? '').toString().trim().toLowerCase();
@@ -37,10 +40,7 @@ export async function loadAdminUsers() {
   try {
     requireRole(state.me, 'admin');
 
-    const [users, profileChanges] = await Promise.all([
-      api('/admin/users'),
-      api('/admin/profile-changes'),
-    ]);
+    const profileChanges = await api('/admin/profile-changes');
 
     const createCounselorCard = `
       <div class="card">
@@ -131,7 +131,7 @@ export async function loadAdminUsers() {
         <div class="grid-3">
           <div class="field">
             <label>Search</label>
-            <input id="au-search" type="text" placeholder="Search name, email, role, specialty" />
+            <input id="au-search" type="text" placeholder="Search this page: name, email, role, specialty" />
           </div>
           <div class="field">
             <label>Role</label>
@@ -170,6 +170,11 @@ export async function loadAdminUsers() {
           </thead>
           <tbody id="au-list"></tbody>
         </table>
+        <div class="actions" style="margin-top: .75rem">
+          <button class="btn-secondary" id="au-prev">Previous</button>
+          <span class="muted" id="au-page"></span>
+          <button class="btn-secondary" id="au-next">Next</button>
+        </div>
       </div>
 
       <!-- Edit User Modal -->
@@ -219,8 +224,14 @@ export async function loadAdminUsers() {
       </div>
     `);
 
-    const allUsers = users || [];
+    // Cursors of the pages visited so far; the last one is the page on screen.
+    const cursors = [null];
+    let pageUsers = [];
+    let nextCursor = null;
     const listEl = document.getElementById('au-list');
+    const prevEl = document.getElementById('au-prev');
+    const nextEl = document.getElementById('au-next');
+    const pageEl = document.getElementById('au-page');
     const qEl = document.getElementById('au-search');
     const roleEl = document.getElementById('au-role');
     const activeEl = document.getElementById('au-active');
@@ -325,7 +336,7 @@ export async function loadAdminUsers() {
       document.querySelectorAll('#au-list [data-edit-user]').forEach((btn) => {
         btn.addEventListener('click', () => {
           const id = btn.getAttribute('data-edit-user');
-          const user = allUsers.find(u => String(u.id) === id);
+          const user = pageUsers.find(u => String(u.id) === id);
           if (!user) return;
 
           editUserId.value = user.id;
@@ -370,16 +381,8 @@ export async function loadAdminUsers() {
 
     const renderUsers = () => {
       const q = qEl.value;
-      const role = roleEl.value;
-      const active = activeEl.value;
-
-      const filtered = allUsers.filter((u) => {
-        if (role !== 'all' && String(u.role) !== role) return false;
-        if (active !== 'all') {
-          const isActive = Boolean(u.active);
-          if (active === 'active' && !isActive) return false;
-          if (active === 'inactive' && isActive) return false;
-        }
+
+      const filtered = pageUsers.filter((u) => {
         const haystack = `${u.name || ''} ${u.email || ''} ${u.role || ''} ${u.specialty || ''}`;
         return includesText(haystack, q);
       });
@@ -390,19 +393,53 @@ export async function loadAdminUsers() {
         listEl.innerHTML = filtered.map(userRow).join('');
       }
       bindUserActions();
+      pageEl.textContent = `Page ${cursors.length}`;
+      prevEl.disabled = cursors.length === 1;
+      nextEl.disabled = !nextCursor;
+    };
+
+    const fetchUsers = async () => {
+      try {
+        const params = new URLSearchParams({ limit: String(USERS_PAGE_SIZE) });
+        if (roleEl.value !== 'all') params.set('role', roleEl.value);
+        if (activeEl.value !== 'all') params.set('active', String(activeEl.value === 'active'));
+        const page = await apiPage(`/admin/users?${params}`, cursors[cursors.length - 1]);
+        pageUsers = page.items;
+        nextCursor = page.next;
+        renderUsers();
+      } catch (e) {
+        renderError(e);
+      }
+    };
+
+    const restart = () => {
+      cursors.length = 1;
+      fetchUsers();
     };
 
     qEl.addEventListener('input', renderUsers);
-    roleEl.addEventListener('change', renderUsers);
-    activeEl.addEventListener('change', renderUsers);
+    roleEl.addEventListener('change', restart);
+    activeEl.addEventListener('change', restart);
     clearEl.addEventListener('click', () => {
       qEl.value = '';
       roleEl.value = 'all';
       activeEl.value = 'all';
-      renderUsers();
+      restart();
+    });
+    prevEl.addEventListener('click', () => {
+      if (cursors.length > 1) {
+        cursors.pop();
+        fetchUsers();
+      }
+    });
+    nextEl.addEventListener('click', () => {
+      if (nextCursor) {
+        cursors.push(nextCursor);
+        fetchUsers();
+      }
     });
 
-    renderUsers();
+    await fetchUsers();
   } catch (e) {
     renderError(e);
   }
@@ -1,4 +1,4 @@
-import { api } from '../api.js';
+import { api, apiFeed } from '../api.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole, toast } from '../ui.js';
 
@@ -33,7 +33,7 @@ export async function loadCounselorAppointments() {
   try {
     requireRole(state.me, 'counselor');
 
-    const aps = await api('/counselor/appointments');
+    const aps = await apiFeed('/counselor/appointments');
 
     renderMain(`
       <div class="card">
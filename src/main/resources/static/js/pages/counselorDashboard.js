@@ -1,9 +1,13 @@
-import { api } from '../api.js';
+import { api, apiFeed } from '../api.js';
+import { fetchMoodSummary } from '../mood.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole, toast } from '../ui.js';
 import { moodChart } from '../components.js';
 import { navigate } from '../router.js';
 
+/** Latest mood entries shown for a selected patient. */
+const COUNSELOR_MOOD_ENTRIES = 30;
+
 function includesText(haystack, needle) {
   const h = (haystack ?? '').toString().toLowerCase();
   const n = (needle ?? '').toString().trim().toLowerCase();
@@ -42,7 +46,14 @@ function getStatusPillClass(status) {
   }
 }
 
-function patientCard(p) {
+function moodSummary(stats) {
+  if (!stats || stats.latestRating == null) return '<div class="muted">No mood entries yet</div>';
+  const arrow = { up: ' &uarr;', down: ' &darr;', flat: ' &rarr;' }[stats.trend] || '';
+  const mean7 = stats.mean7 == null ? '&ndash;' : stats.mean7.toFixed(1);
+  return `<div class="muted">Mood: latest ${stats.latestRating}/10, 7-day avg ${mean7}${arrow}</div>`;
+}
+
+function patientCard(p, stats) {
   const u = p.user || {};
   return `
     <div class="card">
@@ -51,6 +62,7 @@ function patientCard(p) {
           <div class="title">${escapeHtml(u.name || u.email)}</div>
           <div class="muted">${escapeHtml(u.email || '')}</div>
           ${p.emergencyContact ? `<div class="muted">Emergency: ${escapeHtml(p.emergencyContact)}</div>` : ''}
+          ${moodSummary(stats)}
         </div>
         <button class="btn-secondary" data-mood-patient="${p.id}">
           <svg width="16" height="16" viewBox="0 0 24 24" fill="none" stroke="currentColor" stroke-width="2">
@@ -70,10 +82,11 @@ export async function loadCounselorDashboard() {
   try {
     requireRole(state.me, 'counselor');
 
-    const [patients, availability, appointments] = await Promise.all([
+    const [patients, moodStats, availability, appointments] = await Promise.all([
       api('/counselor/patients'),
+      api('/counselor/patients/mood-stats'),
       api('/counselor/availability'),
-      api('/counselor/appointments'),
+      apiFeed('/counselor/appointments'),
     ]);
 
     // Best-practice note:
@@ -201,6 +214,7 @@ export async function loadCounselorDashboard() {
     });
 
     const allPatients = patients || [];
+    const statsByPatient = new Map((moodStats || []).map((s) => [s.patientId, s]));
     const listEl = document.getElementById('patient-list');
     const qEl = document.getElementById('patient-search');
     const clearEl = document.getElementById('patient-clear');
@@ -210,8 +224,8 @@ export async function loadCounselorDashboard() {
         btn.addEventListener('click', async () => {
           try {
             const patientId = btn.getAttribute('data-mood-patient');
-            const mood = await api(`/counselor/patients/${patientId}/mood`);
-            document.getElementById('counselor-mood').innerHTML = moodChart(mood);
+            const mood = await fetchMoodSummary(`/counselor/patients/${patientId}/mood`, COUNSELOR_MOOD_ENTRIES);
+            document.getElementById('counselor-mood').innerHTML = moodChart(mood.recent);
           } catch (e) {
             renderError(e);
           }
@@ -241,7 +255,7 @@ export async function loadCounselorDashboard() {
           </div>
         `;
       } else {
-        listEl.innerHTML = filtered.map(patientCard).join('');
+        listEl.innerHTML = filtered.map((p) => patientCard(p, statsByPatient.get(p.id))).join('');
       }
       bindMoodButtons();
     };
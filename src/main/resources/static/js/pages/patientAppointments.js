@@ -1,4 +1,4 @@
-import { api } from '../api.js';
+import { api, apiFeed } from '../api.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole, toast, toDayOfWeekInt } from '../ui.js';
 import { getRoute } from '../router.js';
@@ -88,7 +88,7 @@ export async function loadPatientAppointments() {
 
     const [counselors, myAppointments] = await Promise.all([
       api('/patient/counselors'),
-      api('/patient/appointments'),
+      apiFeed('/patient/appointments'),
     ]);
 
     // Fetch availability for all counselors
@@ -1,4 +1,5 @@
-import { api } from '../api.js';
+import { api, apiFeed } from '../api.js';
+import { fetchMoodSummary } from '../mood.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole } from '../ui.js';
 import { navigate } from '../router.js';
@@ -31,19 +32,18 @@ export async function loadPatientDashboard() {
     requireRole(state.me, 'patient');
 
     // Fetch all data
-    const [moodHistory, appointments, counselors] = await Promise.all([
-      api('/patient/mood'),
-      api('/patient/appointments'),
+    const [mood, appointments, counselors] = await Promise.all([
+      fetchMoodSummary('/patient/mood', 7),
+      apiFeed('/patient/appointments'),
       api('/patient/counselors'),
     ]);
 
     // Calculate stats
     const todayStr = new Date().toISOString().split('T')[0];
     const upcomingAppts = appointments.filter(a => a.appointmentDate >= todayStr && a.status !== 'canceled');
+    const moodHistory = mood.recent;
     const recentMood = moodHistory.length > 0 ? moodHistory[moodHistory.length - 1] : null;
-    const avgMood = moodHistory.length > 0 
-      ? (moodHistory.reduce((sum, m) => sum + m.rating, 0) / moodHistory.length).toFixed(1)
-      : '-';
+    const avgMood = mood.total > 0 ? mood.avg : '-';
 
     // Recent appointments (next 3)
     const nextAppointments = upcomingAppts.slice(0, 3).map(a => {
@@ -1,4 +1,5 @@
 import { api } from '../api.js';
+import { fetchMoodSummary } from '../mood.js';
 import { state } from '../state.js';
 import { escapeHtml, renderMain, renderError, requireRole, toast } from '../ui.js';
 
@@ -31,16 +32,10 @@ function formatDate(dateStr) {
   return date.toLocaleDateString('en-US', { weekday: 'short', month: 'short', day: 'numeric' });
 }
 
-function calculateStats(entries) {
-  if (!entries || entries.length === 0) {
-    return { avg: 0, highest: 0, lowest: 0, trend: 'neutral' };
-  }
-  
-  const ratings = entries.map(e => e.rating);
-  const avg = (ratings.reduce((a, b) => a + b, 0) / ratings.length).toFixed(1);
-  const highest = Math.max(...ratings);
-  const lowest = Math.min(...ratings);
-  
+/** Entries drawn in the trend chart; the list and the trend use the newest of these. */
+const RECENT_ENTRIES = 14;
+
+function calculateTrend(entries) {
   // Calculate trend (compare last 3 entries to previous 3)
   let trend = 'neutral';
   if (entries.length >= 6) {
@@ -52,7 +47,7 @@ function calculateStats(entries) {
     else if (recentAvg < prevAvg - 0.5) trend = 'down';
   }
   
-  return { avg, highest, lowest, trend };
+  return trend;
 }
 
 function renderMoodChart(entries) {
@@ -71,7 +66,7 @@ function renderMoodChart(entries) {
     `;
   }
 
-  const recentEntries = entries.slice(-14); // Show last 14 entries
+  const recentEntries = entries.slice(-RECENT_ENTRIES);
   
   const bars = recentEntries.map((e) => {
     const rating = Math.max(0, Math.min(10, Number(e.rating || 0)));
@@ -128,8 +123,9 @@ export async function loadPatientMood() {
   try {
     requireRole(state.me, 'patient');
 
-    const history = await api('/patient/mood');
-    const stats = calculateStats(history);
+    const summary = await fetchMoodSummary('/patient/mood', RECENT_ENTRIES);
+    const history = summary.recent;
+    const stats = { avg: summary.avg, highest: summary.highest, trend: calculateTrend(history) };
 
     const trendIcon = stats.trend === 'up' 
       ? '<svg width="20" height="20" viewBox="0 0 24 24" fill="none" stroke="#48bb78" stroke-width="2"><polyline points="23 6 13.5 15.5 8.5 10.5 1 18"></polyline><polyline points="17 6 23 6 23 12"></polyline></svg>'
@@ -145,7 +141,7 @@ export async function loadPatientMood() {
 
       <div class="stats-grid">
         <div class="stat-card">
-          <div class="stat-value">${history.length}</div>
+          <div class="stat-value">${summary.total}</div>
           <div class="stat-label">Total Entries</div>
         </div>
         <div class="stat-card">
@@ -0,0 +1,48 @@
+package com.example.mentalhealth;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the migrations the way production does against a database that ddl-auto=update created:
+ * baseline at version 0, then V1 onwards over the existing tables and rows.
+ */
+class BaselineMigrationTest {
+
+    @Test
+    void migrationsUpgradeDdlAutoSchemaWithExistingRows() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(
+                new org.h2.Driver(), "jdbc:h2:mem:baseline_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/ddl_auto_baseline.sql")).execute(dataSource);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // Only the earliest live booking of the double-booked slot holds it.
+        assertEquals(List.of(1L), jdbc.queryForList(
+                "SELECT id FROM appointments WHERE active_slot = TRUE ORDER BY id", Long.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbc.update(
+                "INSERT INTO appointments (patient_id, counselor_id, appointment_date, appointment_time, status, active_slot, created_at) "
+                        + "VALUES (2, 1, DATE '2026-01-05', TIME '10:00:00', 'scheduled', TRUE, CURRENT_TIMESTAMP)"));
+
+        assertEquals(List.of(2L, 3L), jdbc.queryForList("SELECT id FROM mood_entries ORDER BY id", Long.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbc.update(
+                "INSERT INTO mood_entries (patient_id, rating, entry_date) VALUES (2, 4, DATE '2026-01-06')"));
+    }
+}
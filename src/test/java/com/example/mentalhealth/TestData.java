@@ -0,0 +1,126 @@
+package com.example.mentalhealth;
+
+import com.example.mentalhealth.model.Appointment;
+import com.example.mentalhealth.model.Availability;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.AvailabilityRepository;
+import com.example.mentalhealth.repository.PatientRepository;
+import com.example.mentalhealth.repository.UserRepository;
+import com.example.mentalhealth.service.SessionAuthService;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves the users, patients, availability and appointments that integration tests start from.
+ * Pull it in with {@code @Import(TestData.class)}.
+ */
+@TestComponent
+public class TestData {
+    private final UserRepository userRepository;
+    private final PatientRepository patientRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    public TestData(UserRepository userRepository,
+                    PatientRepository patientRepository,
+                    AvailabilityRepository availabilityRepository,
+                    AppointmentRepository appointmentRepository) {
+        this.userRepository = userRepository;
+        this.patientRepository = patientRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    public User user(String email, User.Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setRole(role);
+        user.setActive(true);
+        return userRepository.save(user);
+    }
+
+    public User counselor(String email) {
+        return user(email, User.Role.counselor);
+    }
+
+    /**
+     * A counselor available Mondays 09:00-17:00.
+     */
+    public User availableCounselor(String email) {
+        User counselor = counselor(email);
+        availability(counselor, DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0));
+        return counselor;
+    }
+
+    public Patient patient(String email) {
+        return patient(email, null);
+    }
+
+    public Patient patient(String email, User assignedCounselor) {
+        Patient patient = new Patient();
+        patient.setUser(user(email, User.Role.patient));
+        patient.setAssignedCounselor(assignedCounselor);
+        return patientRepository.save(patient);
+    }
+
+    /**
+     * {@code count} patients with emails {@code prefix0@example.com} onwards.
+     */
+    public List<Patient> patients(String prefix, int count) {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            patients.add(patient(prefix + i + "@example.com"));
+        }
+        return patients;
+    }
+
+    public void availability(User counselor, DayOfWeek day, LocalTime start, LocalTime end) {
+        Availability availability = new Availability();
+        availability.setCounselor(counselor);
+        availability.setDayOfWeek(day.getValue() % 7);
+        availability.setStartTime(start);
+        availability.setEndTime(end);
+        availabilityRepository.save(availability);
+    }
+
+    /**
+     * Saves an appointment directly, bypassing the booking rules.
+     */
+    public Appointment appointment(Patient patient, User counselor, LocalDate date, LocalTime time, String status) {
+        Appointment ap = new Appointment();
+        ap.setPatient(patient);
+        ap.setCounselor(counselor);
+        ap.setAppointmentDate(date);
+        ap.setAppointmentTime(time);
+        ap.setStatus(status);
+        return appointmentRepository.save(ap);
+    }
+
+    public static MockHttpSession sessionFor(User user) {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionAuthService.SESSION_USER_ID, user.getId());
+        return session;
+    }
+
+    public static MockHttpSession sessionFor(Patient patient) {
+        return sessionFor(patient.getUser());
+    }
+
+    public static LocalDate nextMonday() {
+        return LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    public static String bookingJson(User counselor, LocalDate date, String time) {
+        return "{\"counselorId\":" + counselor.getId() + ",\"appointmentDate\":\"" + date + "\",\"appointmentTime\":\"" + time + "\"}";
+    }
+}
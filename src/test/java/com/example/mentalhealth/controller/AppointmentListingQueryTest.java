@@ -0,0 +1,101 @@
+package com.example.mentalhealth.controller;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Appointment and patient lists are served from projection queries, so the statement count does
+ * not grow with the number of rows.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Keep the principal change poll out of the counted statements.
+        "mindcare.auth.principal-cache.poll-ms=3600000"
+})
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AppointmentListingQueryTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void appointmentAndPatientLists_useConstantNumberOfQueries() throws Exception {
+        User counselor = testData.counselor("counselor7@example.com");
+        LocalDate date = LocalDate.now().plusDays(7);
+        MockHttpSession patientSession = null;
+        for (int i = 0; i < 5; i++) {
+            Patient patient = testData.patient("listed" + i + "@example.com", i == 0 ? counselor : null);
+            patient.getUser().setName("Listed " + i);
+            userRepository.save(patient.getUser());
+            if (i == 0) {
+                patientSession = sessionFor(patient);
+            }
+            for (int j = 0; j < 2; j++) {
+                testData.appointment(patient, counselor, date.plusDays(j), LocalTime.of(9 + i, 0), "scheduled");
+            }
+        }
+
+        MockHttpSession counselorSession = sessionFor(counselor);
+        // Warm the principal cache so only the listing queries are counted.
+        mockMvc.perform(get("/api/auth/me").session(counselorSession)).andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/counselor/appointments").session(counselorSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].patient.email").value("listed0@example.com"));
+        // One statement reads the change version, one loads the list.
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/counselor/patients").session(counselorSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].user.name").value("Listed 0"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // One statement resolves the current patient, one reads the change version, one loads the list.
+        statistics.clear();
+        mockMvc.perform(get("/api/patient/appointments").session(patientSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].counselor.email").value("counselor7@example.com"));
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.mentalhealth.controller;
 
+import com.example.mentalhealth.TestData;
 import com.example.mentalhealth.model.Availability;
 import com.example.mentalhealth.model.Patient;
 import com.example.mentalhealth.model.User;
@@ -13,7 +14,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -23,11 +26,18 @@ import org.springframework.test.annotation.DirtiesContext;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import static com.example.mentalhealth.TestData.bookingJson;
+import static com.example.mentalhealth.TestData.nextMonday;
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@Import(TestData.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class PatientAppointmentBookingTest {
 
@@ -37,6 +47,8 @@ class PatientAppointmentBookingTest {
     @Autowired private PatientRepository patientRepository;
     @Autowired private AvailabilityRepository availabilityRepository;
     @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TestData testData;
 
     @BeforeEach
     void setUp() {
@@ -136,4 +148,208 @@ class PatientAppointmentBookingTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Time slot already booked"));
     }
+
+    @Test
+    void bookAppointment_rejectsSecondBookingOfIndexedSlot() throws Exception {
+        User counselor = testData.availableCounselor("counselor3@example.com");
+        MockHttpSession session = sessionFor(testData.patient("patient3@example.com"));
+        // A future Monday is covered by the in-memory slot index rather than the database check.
+        String body = bookingJson(counselor, nextMonday(), "11:00");
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(session)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(session)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Time slot already booked"));
+    }
+
+    @Test
+    void bookAppointment_rejectsTimeWithSeconds() throws Exception {
+        User counselor = testData.availableCounselor("counselor8@example.com");
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(sessionFor(testData.patient("patient8@example.com")))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(bookingJson(counselor, nextMonday(), "11:00:30"))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("appointmentTime must be a whole minute"));
+    }
+
+    @Test
+    void bookAppointment_replaysResponseForRepeatedIdempotencyKey() throws Exception {
+        User counselor = testData.availableCounselor("counselor7@example.com");
+        Patient patient = testData.patient("patient7@example.com");
+        MockHttpSession session = sessionFor(patient);
+        String body = bookingJson(counselor, nextMonday(), "15:00");
+
+        String first = mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(session)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        String replay = mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(session)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, replay);
+        assertEquals(1, appointmentRepository.findByPatientOrderByAppointmentDateAscAppointmentTimeAsc(patient).size());
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(session)
+                                .header("Idempotency-Key", "retry-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body.replace("15:00", "16:00"))
+                )
+                .andExpect(status().isUnprocessableContent());
+    }
+
+    @Test
+    void bookSeries_reportsConflictingOccurrenceAndBooksTheRest() throws Exception {
+        User counselor = testData.availableCounselor("counselor4@example.com");
+        Patient patient = testData.patient("patient4@example.com");
+        LocalDate firstDate = nextMonday();
+        testData.appointment(patient, counselor, firstDate.plusWeeks(2), LocalTime.of(10, 0), "scheduled");
+
+        MockHttpSession session = sessionFor(patient);
+        String series = "{\"counselorId\":" + counselor.getId() + ",\"firstDate\":\"" + firstDate
+                + "\",\"appointmentTime\":\"10:00\",\"occurrences\":4";
+
+        mockMvc.perform(
+                        post("/api/patient/appointments/series")
+                                .session(session)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(series + "}")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(firstDate.plusWeeks(2) + ": Time slot already booked"));
+
+        mockMvc.perform(
+                        post("/api/patient/appointments/series")
+                                .session(session)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(series + ",\"allOrNothing\":false}")
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].booked").value(true))
+                .andExpect(jsonPath("$[2].booked").value(false))
+                .andExpect(jsonPath("$[2].error").value("Time slot already booked"))
+                .andExpect(jsonPath("$[3].appointment.status").value("scheduled"));
+    }
+
+    @Test
+    void bookSeries_partialWithEveryOccurrenceRejected_isConflict() throws Exception {
+        User counselor = testData.availableCounselor("counselor9@example.com");
+        Patient patient = testData.patient("patient9@example.com");
+        LocalDate firstDate = nextMonday();
+        testData.appointment(patient, counselor, firstDate, LocalTime.of(10, 0), "scheduled");
+
+        mockMvc.perform(
+                        post("/api/patient/appointments/series")
+                                .session(sessionFor(patient))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"counselorId\":" + counselor.getId() + ",\"firstDate\":\"" + firstDate
+                                        + "\",\"appointmentTime\":\"10:00\",\"occurrences\":1,\"allOrNothing\":false}")
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("No occurrence could be booked; " + firstDate + ": Time slot already booked"));
+    }
+
+    @Test
+    void bookSeries_partialRejectsOnlyOccurrenceHittingUniqueConstraint() throws Exception {
+        User counselor = testData.availableCounselor("counselor10@example.com");
+        Patient patient = testData.patient("patient10@example.com");
+        LocalDate firstDate = nextMonday();
+        // Written behind the slot index's back, as another node would, so only the database sees it.
+        jdbcTemplate.update("INSERT INTO appointments (patient_id, counselor_id, appointment_date, appointment_time, status, created_at, active_slot) "
+                        + "VALUES (?, ?, ?, ?, 'scheduled', CURRENT_TIMESTAMP, TRUE)",
+                patient.getId(), counselor.getId(), firstDate.plusWeeks(1), LocalTime.of(10, 0));
+
+        mockMvc.perform(
+                        post("/api/patient/appointments/series")
+                                .session(sessionFor(patient))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"counselorId\":" + counselor.getId() + ",\"firstDate\":\"" + firstDate
+                                        + "\",\"appointmentTime\":\"10:00\",\"occurrences\":3,\"allOrNothing\":false}")
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].booked").value(true))
+                .andExpect(jsonPath("$[1].booked").value(false))
+                .andExpect(jsonPath("$[1].error").value("Time slot already booked"))
+                .andExpect(jsonPath("$[2].booked").value(true));
+    }
+
+    @Test
+    void holdSlot_blocksOtherPatientsUntilReleased() throws Exception {
+        User counselor = testData.availableCounselor("counselor5@example.com");
+        MockHttpSession holder = sessionFor(testData.patient("holder@example.com"));
+        MockHttpSession other = sessionFor(testData.patient("other@example.com"));
+        LocalDate date = nextMonday();
+        String body = bookingJson(counselor, date, "09:00");
+
+        String response = mockMvc.perform(
+                        post("/api/patient/appointments/holds")
+                                .session(holder)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.expiresAt").exists())
+                .andReturn().getResponse().getContentAsString();
+        String holdId = response.replaceAll(".*\"holdId\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(
+                        get("/api/patient/counselors/" + counselor.getId() + "/slots")
+                                .session(other)
+                                .param("from", date.toString())
+                                .param("to", date.toString())
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].startTime").value("10:00:00"));
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(other)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Time slot is on hold by another patient"));
+
+        mockMvc.perform(delete("/api/patient/appointments/holds/" + holdId).session(holder))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(
+                        post("/api/patient/appointments")
+                                .session(other)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                )
+                .andExpect(status().isCreated());
+    }
 }
@@ -0,0 +1,128 @@
+package com.example.mentalhealth.controller;
+
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "mindcare.auth.mode=token",
+        "mindcare.auth.token.secret=test-secret-that-is-at-least-32-bytes-long",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Keep the revocation poll out of the counted statements; revoking applies locally at once.
+        "mindcare.auth.token.revocation-poll-ms=3600000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TokenAuthModeTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BCryptPasswordEncoder passwordEncoder;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void token_authenticatesWithoutSessionAndIsRevokedOnDeactivation() throws Exception {
+        String registered = mockMvc.perform(
+                        post("/api/auth/register")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"token-patient@example.com\",\"password\":\"secret\",\"name\":\"Pat\"}")
+                )
+                .andExpect(status().isCreated())
+                .andExpect(cookie().httpOnly("MINDCARE_TOKEN", true))
+                .andReturn().getResponse().getContentAsString();
+        String patientToken = registered.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/user/profile").header("Authorization", "Bearer " + patientToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("token-patient@example.com"));
+
+        mockMvc.perform(get("/api/user/profile"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/user/profile").header("Authorization", "Bearer " + patientToken + "x"))
+                .andExpect(status().isUnauthorized());
+
+        User admin = new User();
+        admin.setEmail("token-admin@example.com");
+        admin.setPassword(passwordEncoder.encode("admin-secret"));
+        admin.setRole(User.Role.admin);
+        admin.setActive(true);
+        userRepository.save(admin);
+
+        String adminLogin = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"token-admin@example.com\",\"password\":\"admin-secret\"}")
+                )
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String adminToken = adminLogin.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+        // Authentication and the role check come from the token alone.
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/admin/booking-rules").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/booking-rules").header("Authorization", "Bearer " + patientToken))
+                .andExpect(status().isForbidden());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        User patient = userRepository.findByEmail("token-patient@example.com").orElseThrow();
+        mockMvc.perform(
+                        post("/api/admin/users/" + patient.getId() + "/active")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"active\":false}")
+                )
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/user/profile").header("Authorization", "Bearer " + patientToken))
+                .andExpect(status().isUnauthorized());
+
+        // Reactivated and signed in again straight away: only tokens from before the revocation are refused.
+        mockMvc.perform(
+                        post("/api/admin/users/" + patient.getId() + "/active")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"active\":true}")
+                )
+                .andExpect(status().isOk());
+        String relogin = mockMvc.perform(
+                        post("/api/auth/login")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"token-patient@example.com\",\"password\":\"secret\"}")
+                )
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String freshToken = relogin.replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/user/profile").header("Authorization", "Bearer " + freshToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/user/profile").header("Authorization", "Bearer " + patientToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
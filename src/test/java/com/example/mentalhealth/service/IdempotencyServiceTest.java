@@ -0,0 +1,121 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IdempotencyServiceTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void errorInAction_releasesWaitingDuplicateAndKey() throws Exception {
+        IdempotencyService idempotency = new IdempotencyService(10, 100, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+
+        CompletableFuture<Object> original = CompletableFuture.supplyAsync(() ->
+                idempotency.execute(1L, "test", "key", "body", () -> {
+                    started.countDown();
+                    await(fail);
+                    throw new OutOfMemoryError("simulated");
+                }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        AtomicReference<Throwable> duplicateFailure = new AtomicReference<>();
+        Thread duplicate = new Thread(() -> {
+            try {
+                idempotency.execute(1L, "test", "key", "body", () -> "ran twice");
+            } catch (Throwable e) {
+                duplicateFailure.set(e);
+            }
+        });
+        duplicate.start();
+        // Parked waiting for the original's outcome.
+        for (int i = 0; i < 500 && duplicate.getState() != Thread.State.TIMED_WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, duplicate.getState());
+        fail.countDown();
+
+        ExecutionException originalFailure = assertThrows(ExecutionException.class, () -> original.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, originalFailure.getCause());
+        // Answered with the original failure well before the 30 second in-flight wait runs out.
+        duplicate.join(10_000);
+        assertInstanceOf(IllegalStateException.class, duplicateFailure.get());
+
+        assertEquals("retried", idempotency.execute(1L, "test", "key", "body", () -> "retried"));
+    }
+
+    @Test
+    void moodWithoutDate_isFingerprintedWithTheResolvedDate() throws Exception {
+        MockHttpSession session = sessionFor(testData.patient("mood-key@example.com"));
+
+        String first = mockMvc.perform(post("/api/patient/mood")
+                        .session(session)
+                        .header(IdempotencyService.HEADER, "mood-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":6,\"notes\":\"ok\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        // The same request spelled with today's date is a retry, not a different request.
+        String replay = mockMvc.perform(post("/api/patient/mood")
+                        .session(session)
+                        .header(IdempotencyService.HEADER, "mood-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":6,\"notes\":\"ok\",\"entryDate\":\"" + LocalDate.now() + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(first, replay);
+
+        mockMvc.perform(post("/api/patient/mood")
+                        .session(session)
+                        .header(IdempotencyService.HEADER, "mood-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":6,\"notes\":\"ok\",\"entryDate\":\"" + LocalDate.now().minusDays(1) + "\"}"))
+                .andExpect(status().isUnprocessableContent());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * BCrypt cost handling and admission control in {@link PasswordHashingService}. The configured
+ * cost is kept low so the tests stay fast; the pool is one thread with room for one waiting task.
+ */
+@SpringBootTest(properties = {
+        "mindcare.security.bcrypt-strength=4",
+        "mindcare.security.hash-threads=1",
+        "mindcare.security.hash-queue-capacity=1",
+        "mindcare.security.hash-timeout-ms=100"
+})
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PasswordHashingServiceTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private PasswordHashingService passwordHashing;
+    @Autowired private UserRepository userRepository;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void login_rehashesStoredHashAtConfiguredCost() throws Exception {
+        User user = testData.counselor("rehash@example.com");
+        user.setPassword(new BCryptPasswordEncoder(5).encode("secret-password"));
+        userRepository.save(user);
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"rehash@example.com\",\"password\":\"secret-password\"}"))
+                .andExpect(status().isOk());
+
+        String stored = user.getPassword();
+        for (int i = 0; i < 100 && PasswordHashingService.costOf(stored) != 4; i++) {
+            Thread.sleep(50);
+            stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        }
+        assertEquals(4, PasswordHashingService.costOf(stored));
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"rehash@example.com\",\"password\":\"secret-password\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownEmail_isCheckedAtCostOfStoredHashes() {
+        assertEquals(4, PasswordHashingService.costOf(passwordHashing.dummyHash()));
+
+        // Stored hashes still have the previous cost, so unknown emails must take as long.
+        String stored = new BCryptPasswordEncoder(6).encode("secret-password");
+        passwordHashing.matches("wrong-password", stored);
+        assertEquals(6, PasswordHashingService.costOf(passwordHashing.dummyHash()));
+        assertFalse(passwordHashing.matches("secret-password", null));
+    }
+
+    @Test
+    void saturatedPool_rejectsLoginsWith503() throws Exception {
+        User user = testData.counselor("slow@example.com");
+        // Far slower than the timeout, so the only thread stays busy for the whole test.
+        user.setPassword(new BCryptPasswordEncoder(14).encode("secret-password"));
+        userRepository.save(user);
+        String login = "{\"email\":\"slow@example.com\",\"password\":\"secret-password\"}";
+
+        // Times out while running, then times out waiting in the queue, then finds the queue full.
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(login))
+                    .andExpect(status().isServiceUnavailable());
+        }
+        assertEquals(3.0, meterRegistry.get("mindcare.auth.hash.rejections").counter().count());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.mentalhealth.service;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.PatientRepository;
+import com.example.mentalhealth.repository.PrincipalChangeRepository;
+import com.example.mentalhealth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The principal cache in {@link SessionAuthService}: admin changes must reach cached principals
+ * on this node at once and on others at their next poll. The other node is a second service
+ * instance over the same database.
+ */
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SessionAuthServiceTest {
+
+    private MockMvc mockMvc;
+    private SessionAuthService otherNode;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PatientRepository patientRepository;
+    @Autowired private PrincipalChangeRepository changeRepository;
+    @Autowired private AuthTokenService tokens;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        otherNode = new SessionAuthService(userRepository, patientRepository, changeRepository, tokens,
+                new SimpleMeterRegistry(), 60, 100, 5000);
+    }
+
+    @Test
+    void setActive_invalidatesCachedPrincipalOnEveryNode() throws Exception {
+        MockHttpSession admin = sessionFor(testData.user("admin@example.com", User.Role.admin));
+        User counselor = testData.counselor("deactivated@example.com");
+        MockHttpSession session = sessionFor(counselor);
+
+        mockMvc.perform(get("/api/user/profile").session(session)).andExpect(status().isOk());
+        otherNode.requireLogin(session);
+
+        setActive(admin, counselor, false);
+        mockMvc.perform(get("/api/user/profile").session(session)).andExpect(status().isForbidden());
+        // The other node still answers from its cache until it polls.
+        otherNode.requireLogin(session);
+        otherNode.refreshPrincipalChanges();
+        ApiException denied = assertThrows(ApiException.class, () -> otherNode.requireLogin(session));
+        assertEquals(HttpStatus.FORBIDDEN, denied.getStatus());
+
+        setActive(admin, counselor, true);
+        mockMvc.perform(get("/api/user/profile").session(session)).andExpect(status().isOk());
+        otherNode.refreshPrincipalChanges();
+        otherNode.requireLogin(session);
+    }
+
+    @Test
+    void changeRole_invalidatesCachedPrincipalOnEveryNode() throws Exception {
+        MockHttpSession admin = sessionFor(testData.user("admin@example.com", User.Role.admin));
+        User counselor = testData.counselor("demoted@example.com");
+        MockHttpSession session = sessionFor(counselor);
+
+        mockMvc.perform(get("/api/counselor/patients").session(session)).andExpect(status().isOk());
+        otherNode.requireRole(session, User.Role.counselor);
+
+        mockMvc.perform(post("/api/admin/users/" + counselor.getId() + "/role")
+                        .session(admin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"patient\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/counselor/patients").session(session)).andExpect(status().isForbidden());
+        otherNode.refreshPrincipalChanges();
+        assertThrows(ApiException.class, () -> otherNode.requireRole(session, User.Role.counselor));
+        assertEquals(User.Role.patient, otherNode.requireLogin(session).getRole());
+    }
+
+    @Test
+    void deleteUser_invalidatesCachedPrincipalOnEveryNode() throws Exception {
+        MockHttpSession admin = sessionFor(testData.user("admin@example.com", User.Role.admin));
+        User counselor = testData.counselor("deleted@example.com");
+        MockHttpSession session = sessionFor(counselor);
+        otherNode.requireLogin(session);
+
+        mockMvc.perform(delete("/api/admin/users/" + counselor.getId()).session(admin)).andExpect(status().isOk());
+
+        otherNode.refreshPrincipalChanges();
+        ApiException denied = assertThrows(ApiException.class, () -> otherNode.requireLogin(session));
+        assertEquals(HttpStatus.UNAUTHORIZED, denied.getStatus());
+    }
+
+    private void setActive(MockHttpSession admin, User user, boolean active) throws Exception {
+        mockMvc.perform(post("/api/admin/users/" + user.getId() + "/active")
+                        .session(admin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"active\":" + active + "}"))
+                .andExpect(status().isOk());
+    }
+}
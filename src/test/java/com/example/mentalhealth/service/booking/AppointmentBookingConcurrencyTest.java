@@ -0,0 +1,259 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.exception.ApiException;
+import com.example.mentalhealth.model.Appointment;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.mentalhealth.TestData.nextMonday;
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AppointmentBookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired private AppointmentBookingService bookingService;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private BookingRulePipeline rulePipeline;
+    @Autowired private SlotHoldRegistry slotHolds;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private TestData testData;
+
+    @Test
+    void concurrentBookingsOfSameSlot_onlyOneSucceeds() throws Exception {
+        User counselor = testData.availableCounselor("stress-counselor@example.com");
+        List<Patient> patients = testData.patients("stress-patient", THREADS);
+        LocalDate date = nextMonday();
+        LocalTime time = LocalTime.of(10, 0);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            try {
+                bookingService.bookAppointment(patients.get(i), counselor, date, time);
+                booked.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals("Time slot already booked", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, booked.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, activeAppointments(counselor, date, time));
+    }
+
+    @Test
+    void concurrentBookingsAcrossCounselors_neverDoubleBook() throws Exception {
+        List<User> counselors = new ArrayList<>();
+        for (int c = 0; c < 4; c++) {
+            counselors.add(testData.availableCounselor("stress-multi-" + c + "@example.com"));
+        }
+        int attempts = THREADS * 8;
+        List<Patient> patients = testData.patients("stress-multi-patient", attempts);
+        LocalDate date = nextMonday();
+
+        AtomicInteger booked = new AtomicInteger();
+        runConcurrently(attempts, i -> {
+            // Every (counselor, hour) pair is contended by several threads at once.
+            User counselor = counselors.get(i % counselors.size());
+            LocalTime time = LocalTime.of(9 + (i / counselors.size()) % 8, 0);
+            try {
+                bookingService.bookAppointment(patients.get(i), counselor, date, time);
+                booked.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals("Time slot already booked", e.getMessage());
+            }
+        });
+
+        assertEquals(counselors.size() * 8, booked.get());
+        Set<String> seen = new HashSet<>();
+        for (Appointment ap : appointmentRepository.findAll()) {
+            if (!"canceled".equals(ap.getStatus())) {
+                String key = ap.getCounselor().getId() + "|" + ap.getAppointmentDate() + "|" + ap.getAppointmentTime();
+                assertTrue(seen.add(key), "double booking for " + key);
+            }
+        }
+    }
+
+    @Test
+    void concurrentBookingsOnSeparateNodes_areSettledByDatabaseConstraint() throws Exception {
+        User counselor = testData.availableCounselor("nodes-counselor@example.com");
+        List<Patient> patients = testData.patients("nodes-patient", THREADS);
+        // A past Monday is not covered by the slot index, and every thread has its own locks as
+        // if it ran on another node, so only the unique constraint stops double bookings.
+        LocalDate date = LocalDate.of(2025, 1, 6);
+        LocalTime time = LocalTime.of(10, 0);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            AppointmentBookingService node = new AppointmentBookingService(appointmentRepository, rulePipeline,
+                    new CounselorBookingLocks(1), slotHolds, transactionManager);
+            try {
+                node.bookAppointment(patients.get(i), counselor, date, time);
+                booked.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+                assertEquals("Time slot already booked", e.getMessage());
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, booked.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, activeAppointments(counselor, date, time));
+    }
+
+    @Test
+    void bookingMissedBySlotIndex_isReportedAsSlotTaken() {
+        User counselor = testData.availableCounselor("hidden-counselor@example.com");
+        List<Patient> patients = testData.patients("hidden-patient", 2);
+        LocalDate date = nextMonday();
+        LocalTime time = LocalTime.of(11, 0);
+        // Written behind the slot index's back, as another node would.
+        jdbcTemplate.update("INSERT INTO appointments (patient_id, counselor_id, appointment_date, appointment_time, status, created_at, active_slot) "
+                        + "VALUES (?, ?, ?, ?, 'scheduled', CURRENT_TIMESTAMP, TRUE)",
+                patients.get(0).getId(), counselor.getId(), date, time);
+
+        ApiException e = assertThrows(ApiException.class,
+                () -> bookingService.bookAppointment(patients.get(1), counselor, date, time));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+        assertEquals("Time slot already booked", e.getMessage());
+    }
+
+    @Test
+    void slotCanceledOnAnotherNode_canBeBookedAgain() {
+        User counselor = testData.availableCounselor("remote-cancel-counselor@example.com");
+        List<Patient> patients = testData.patients("remote-cancel-patient", 2);
+        LocalDate date = nextMonday();
+        LocalTime time = LocalTime.of(13, 0);
+        Appointment first = bookingService.bookAppointment(patients.get(0), counselor, date, time);
+        // Canceled behind the slot index's back, as another node would.
+        jdbcTemplate.update("UPDATE appointments SET status = 'canceled', active_slot = NULL WHERE id = ?", first.getId());
+
+        Appointment second = bookingService.bookAppointment(patients.get(1), counselor, date, time);
+
+        assertEquals(1, activeAppointments(counselor, date, time));
+        assertEquals(patients.get(1).getId(), second.getPatient().getId());
+    }
+
+    @Test
+    void reactivatingAppointmentWhoseSlotWasRebooked_isReportedLikeBooking() throws Exception {
+        User counselor = testData.availableCounselor("reactivate-counselor@example.com");
+        List<Patient> patients = testData.patients("reactivate-patient", 2);
+        LocalDate date = nextMonday();
+        LocalTime time = LocalTime.of(15, 0);
+        Appointment canceled = testData.appointment(patients.get(0), counselor, date, time, "canceled");
+        testData.appointment(patients.get(1), counselor, date, time, "scheduled");
+
+        MockMvcBuilders.webAppContextSetup(webApplicationContext).build()
+                .perform(post("/api/counselor/appointments/" + canceled.getId() + "/status")
+                        .session(sessionFor(counselor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"scheduled\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Time slot already booked"));
+    }
+
+    @Test
+    void otherIntegrityViolations_areNotReportedAsSlotTaken() {
+        DataIntegrityViolationException slot = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_APPOINTMENTS_ACTIVE_SLOT ON PUBLIC.APPOINTMENTS\""));
+        DataIntegrityViolationException other = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Referential integrity constraint violation: \"FK_APPOINTMENTS_PATIENT\""));
+
+        assertTrue(AppointmentBookingService.isSlotConflict(slot));
+        assertFalse(AppointmentBookingService.isSlotConflict(other));
+        assertSame(other, AppointmentBookingService.slotConflictOr(other));
+    }
+
+    @Test
+    void databaseRejectsSecondActiveAppointmentForSameSlot() {
+        User counselor = testData.availableCounselor("constraint-counselor@example.com");
+        List<Patient> patients = testData.patients("constraint-patient", 3);
+        LocalDate date = nextMonday();
+        LocalTime time = LocalTime.of(14, 0);
+
+        testData.appointment(patients.get(0), counselor, date, time, "canceled");
+        testData.appointment(patients.get(1), counselor, date, time, "scheduled");
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> testData.appointment(patients.get(2), counselor, date, time, "confirmed"));
+    }
+
+    private void runConcurrently(int tasks, IndexedTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long activeAppointments(User counselor, LocalDate date, LocalTime time) {
+        return appointmentRepository.findAll().stream()
+                .filter(ap -> ap.getCounselor().getId().equals(counselor.getId()))
+                .filter(ap -> ap.getAppointmentDate().equals(date) && ap.getAppointmentTime().equals(time))
+                .filter(ap -> !"canceled".equals(ap.getStatus()))
+                .count();
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.Appointment;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.mentalhealth.TestData.bookingJson;
+import static com.example.mentalhealth.TestData.nextMonday;
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AppointmentChangeFeedTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private AppointmentChangeFeed changeFeed;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void since_returnsOnlyRowsWrittenAfterVersionAndTombstones() throws Exception {
+        User counselor = testData.availableCounselor("counselor-feed@example.com");
+        MockHttpSession patientSession = sessionFor(testData.patient("patient-feed@example.com"));
+        MockHttpSession counselorSession = sessionFor(counselor);
+        LocalDate date = nextMonday();
+        List<Long> ids = book(patientSession, counselor, date, "10:00", "11:00");
+
+        String listed = mockMvc.perform(get("/api/counselor/appointments").session(counselorSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(AppointmentChangeFeed.HEADER);
+
+        mockMvc.perform(post("/api/patient/appointments/" + ids.get(0) + "/cancel").session(patientSession))
+                .andExpect(status().isOk());
+
+        String afterCancel = mockMvc.perform(get("/api/counselor/appointments").param("since", listed).session(counselorSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(ids.get(0)))
+                .andExpect(jsonPath("$[0].status").value("canceled"))
+                .andReturn().getResponse().getHeader(AppointmentChangeFeed.HEADER);
+        assertTrue(Long.parseLong(afterCancel) > Long.parseLong(listed));
+
+        mockMvc.perform(get("/api/counselor/appointments").param("since", afterCancel).session(counselorSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().string(AppointmentChangeFeed.HEADER, afterCancel));
+
+        appointmentRepository.deleteById(ids.get(1));
+
+        mockMvc.perform(get("/api/patient/appointments").param("since", afterCancel).session(patientSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(ids.get(1)))
+                .andExpect(jsonPath("$[0].deleted").value(true));
+
+        mockMvc.perform(get("/api/patient/appointments").param("since", listed).param("from", date.toString()).session(patientSession))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void since_olderThanPrunedTombstones_isGone() throws Exception {
+        User counselor = testData.availableCounselor("counselor-prune@example.com");
+        MockHttpSession patientSession = sessionFor(testData.patient("patient-prune@example.com"));
+        List<Long> ids = book(patientSession, counselor, nextMonday(), "10:00");
+        long before = changeFeed.watermark();
+
+        appointmentRepository.deleteById(ids.get(0));
+        long afterDelete = changeFeed.watermark();
+        jdbcTemplate.update("UPDATE appointment_tombstones SET deleted_at = ?", LocalDateTime.now().minusDays(31));
+        changeFeed.pruneTombstones();
+
+        mockMvc.perform(get("/api/patient/appointments").param("since", String.valueOf(before)).session(patientSession))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/patient/appointments").param("since", String.valueOf(afterDelete)).session(patientSession))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void watermark_stopsBelowAnEarlierVersionStillInFlight() throws Exception {
+        User counselor = testData.counselor("counselor-order@example.com");
+        Patient patient = testData.patient("patient-order@example.com");
+        Appointment first = testData.appointment(patient, counselor, nextMonday(), LocalTime.of(9, 0), "scheduled");
+        Appointment second = testData.appointment(patient, counselor, nextMonday(), LocalTime.of(10, 0), "scheduled");
+        long before = changeFeed.watermark();
+
+        CountDownLatch drawn = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> earlier = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(tx -> {
+            Appointment ap = appointmentRepository.findById(first.getId()).orElseThrow();
+            ap.setStatus("confirmed");
+            long version = appointmentRepository.saveAndFlush(ap).getChangeVersion();
+            drawn.countDown();
+            await(release);
+            return version;
+        }));
+        assertTrue(drawn.await(5, TimeUnit.SECONDS));
+
+        // The later writer does not wait for the earlier one to commit.
+        long laterVersion = transactionTemplate.execute(tx -> {
+            Appointment ap = appointmentRepository.findById(second.getId()).orElseThrow();
+            ap.setStatus("confirmed");
+            return appointmentRepository.saveAndFlush(ap).getChangeVersion();
+        });
+        assertFalse(earlier.isDone());
+
+        // Its change is committed but sits above the in-flight version, so it is held back.
+        assertEquals(before, changeFeed.watermark());
+        AppointmentChangePage held = changeFeed.forCounselor(counselor.getId(), before, 10);
+        assertTrue(held.changes().isEmpty());
+        assertEquals(before, held.watermark());
+
+        release.countDown();
+        long earlierVersion = earlier.get(5, TimeUnit.SECONDS);
+        assertEquals(earlierVersion + 1, laterVersion);
+        AppointmentChangePage both = changeFeed.forCounselor(counselor.getId(), before, 10);
+        assertEquals(List.of(earlierVersion, laterVersion),
+                both.changes().stream().map(AppointmentChange::changeVersion).toList());
+        assertEquals(laterVersion, both.watermark());
+    }
+
+    @Test
+    void watermark_ignoresVersionsAbandonedPastTheTimeout() {
+        User counselor = testData.counselor("counselor-abandoned@example.com");
+        Patient patient = testData.patient("patient-abandoned@example.com");
+        testData.appointment(patient, counselor, nextMonday(), LocalTime.of(9, 0), "scheduled");
+        long current = changeFeed.watermark();
+
+        jdbcTemplate.update("INSERT INTO appointment_changes_in_flight (version, started_at) VALUES (?, ?)",
+                current, LocalDateTime.now().minusMinutes(10));
+        assertEquals(current, changeFeed.watermark());
+
+        changeFeed.pruneTombstones();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment_changes_in_flight", Integer.class));
+    }
+
+    private List<Long> book(MockHttpSession session, User counselor, LocalDate date, String... times) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String time : times) {
+            String response = mockMvc.perform(
+                            post("/api/patient/appointments")
+                                    .session(session)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(bookingJson(counselor, date, time))
+                    )
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(Long.parseLong(response.replaceAll("^\\{\"id\":(\\d+),.*", "$1")));
+        }
+        return ids;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
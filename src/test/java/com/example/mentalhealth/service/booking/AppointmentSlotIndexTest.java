@@ -0,0 +1,68 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AppointmentRepository;
+import com.example.mentalhealth.repository.BookedSlot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentSlotIndexTest {
+
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    @Test
+    void warm_doesNotRestoreSlotCanceledAfterItsQuery() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        AtomicReference<AppointmentSlotIndex> index = new AtomicReference<>();
+        // The query still sees 09:00 as booked; its cancellation and a new 10:00 booking commit
+        // before warm-up applies the result.
+        index.set(new AppointmentSlotIndex(repository(() -> {
+            index.get().release(7L, tomorrow, NINE);
+            index.get().occupy(7L, tomorrow, TEN);
+            return List.of(new BookedSlot(7L, tomorrow, NINE));
+        })));
+
+        index.get().warm();
+
+        assertTrue(index.get().covers(tomorrow));
+        assertFalse(index.get().isBooked(7L, tomorrow, NINE));
+        assertTrue(index.get().isBooked(7L, tomorrow, TEN));
+    }
+
+    @Test
+    void prunePastDates_dropsDatesBeforeToday() {
+        LocalDate today = LocalDate.now();
+        AppointmentSlotIndex index = new AppointmentSlotIndex(repository(List::of));
+        // Recorded before warm-up, when every date is still tracked.
+        index.occupy(7L, today.minusDays(1), NINE);
+        index.occupy(7L, today, NINE);
+        index.warm();
+
+        index.prunePastDates();
+
+        assertFalse(index.covers(today.minusDays(1)));
+        assertFalse(index.isBooked(7L, today.minusDays(1), NINE));
+        assertTrue(index.isBooked(7L, today, NINE));
+    }
+
+    private static AppointmentRepository repository(Supplier<List<BookedSlot>> activeSlots) {
+        return (AppointmentRepository) Proxy.newProxyInstance(
+                AppointmentRepository.class.getClassLoader(),
+                new Class<?>[]{AppointmentRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveSlotsFrom")) {
+                        return activeSlots.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.exception.ApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingRulePipelineTest {
+
+    private static final AppointmentBookingRequest REQUEST =
+            new AppointmentBookingRequest(null, null, LocalDate.of(2025, 1, 6), LocalTime.of(9, 0));
+
+    @Test
+    void adaptiveOrder_movesFrequentlyRejectingRuleFirst() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        BookingRulePipeline pipeline = new BookingRulePipeline(
+                List.of(new PassingRule(), new RejectingRule()), null, registry, true);
+
+        for (int i = 0; i < 499; i++) {
+            assertThrows(ApiException.class, () -> pipeline.validate(REQUEST, null));
+        }
+        assertEquals(List.of("PassingRule", "RejectingRule"), ruleOrder(pipeline));
+
+        assertThrows(ApiException.class, () -> pipeline.validate(REQUEST, null));
+        assertEquals(List.of("RejectingRule", "PassingRule"), ruleOrder(pipeline));
+    }
+
+    @Test
+    void declaredOrder_isKeptWithoutAdaptiveOrder() {
+        BookingRulePipeline pipeline = new BookingRulePipeline(
+                List.of(new PassingRule(), new RejectingRule()), null, new SimpleMeterRegistry(), false);
+
+        for (int i = 0; i < 500; i++) {
+            assertThrows(ApiException.class, () -> pipeline.validate(REQUEST, null));
+        }
+        assertEquals(List.of("PassingRule", "RejectingRule"), ruleOrder(pipeline));
+    }
+
+    @Test
+    void recordsEvaluationsAndRejectionsPerRule() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        BookingRulePipeline pipeline = new BookingRulePipeline(
+                List.of(new PassingRule(), new RejectingRule()), null, registry, false);
+
+        assertThrows(ApiException.class, () -> pipeline.validate(REQUEST, null));
+        BookingRejections rejections = pipeline.validateBatch(List.of(REQUEST, REQUEST, REQUEST), null);
+
+        assertEquals(3, rejections.count());
+        assertEquals(4, registry.get("mindcare.booking.rule.rejections").tag("rule", "RejectingRule").counter().count());
+        assertEquals(0, registry.get("mindcare.booking.rule.rejections").tag("rule", "PassingRule").counter().count());
+        // One timing per single validation and one per batch.
+        assertEquals(2, registry.get("mindcare.booking.rule.duration").tag("rule", "PassingRule").timer().count());
+
+        BookingRulePipeline.RuleSnapshot passing = pipeline.snapshot().get(0);
+        assertEquals("PassingRule", passing.rule());
+        assertEquals(4, passing.evaluations());
+        assertEquals(0, passing.rejections());
+        BookingRulePipeline.RuleSnapshot rejecting = pipeline.snapshot().get(1);
+        assertEquals(4, rejecting.evaluations());
+        assertEquals(4, rejecting.rejections());
+    }
+
+    private static List<String> ruleOrder(BookingRulePipeline pipeline) {
+        return pipeline.snapshot().stream().map(BookingRulePipeline.RuleSnapshot::rule).toList();
+    }
+
+    private static final class PassingRule implements AppointmentBookingRule {
+        @Override
+        public void validate(AppointmentBookingRequest request, BookingContext context) {
+        }
+    }
+
+    private static final class RejectingRule implements AppointmentBookingRule {
+        @Override
+        public void validate(AppointmentBookingRequest request, BookingContext context) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Rejected");
+        }
+    }
+}
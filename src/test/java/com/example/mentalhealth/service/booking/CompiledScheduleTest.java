@@ -0,0 +1,55 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AvailabilityWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledScheduleTest {
+
+    @Test
+    void mergesOverlappingAndTouchingWindowsPerDay() {
+        CompiledSchedule schedule = CompiledSchedule.compile(List.of(
+                window(1, "13:00", "14:00"),
+                window(1, "09:00", "10:00"),
+                window(1, "10:00", "11:00"),
+                window(1, "09:30", "09:45"),
+                window(1, "15:00", "16:00"),
+                window(2, "08:00", "09:00"),
+                window(7, "08:00", "09:00")
+        ));
+
+        assertArrayEquals(new int[]{540, 780, 900}, schedule.starts(1));
+        assertArrayEquals(new int[]{660, 840, 960}, schedule.ends(1));
+        assertArrayEquals(new int[]{480}, schedule.starts(2));
+        assertArrayEquals(new int[0], schedule.starts(0));
+    }
+
+    @Test
+    void isAvailable_findsWindowByStartInclusiveEndExclusive() {
+        CompiledSchedule schedule = CompiledSchedule.compile(List.of(
+                window(1, "09:00", "11:00"),
+                window(1, "13:00", "14:00"),
+                window(1, "15:00", "16:00")
+        ));
+
+        assertFalse(schedule.isAvailable(1, LocalTime.of(8, 59)));
+        assertTrue(schedule.isAvailable(1, LocalTime.of(9, 0)));
+        assertTrue(schedule.isAvailable(1, LocalTime.of(10, 59)));
+        assertFalse(schedule.isAvailable(1, LocalTime.of(11, 0)));
+        assertFalse(schedule.isAvailable(1, LocalTime.of(12, 0)));
+        assertTrue(schedule.isAvailable(1, LocalTime.of(13, 0)));
+        assertTrue(schedule.isAvailable(1, LocalTime.of(15, 30)));
+        assertFalse(schedule.isAvailable(1, LocalTime.of(16, 0)));
+        assertFalse(schedule.isAvailable(2, LocalTime.of(10, 0)));
+    }
+
+    private AvailabilityWindow window(int dayOfWeek, String start, String end) {
+        return new AvailabilityWindow(7L, dayOfWeek, LocalTime.parse(start), LocalTime.parse(end));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.AvailabilityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CounselorScheduleCacheTest {
+
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime ONE_PM = LocalTime.of(13, 0);
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private CounselorScheduleCache scheduleCache;
+    @Autowired private AvailabilityRepository availabilityRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void replacingAvailability_invalidatesCachedScheduleOnCommit() throws Exception {
+        User counselor = testData.availableCounselor("schedule@example.com");
+        assertTrue(scheduleCache.get(counselor.getId()).isAvailable(1, NINE));
+
+        mockMvc.perform(put("/api/counselor/availability")
+                        .session(sessionFor(counselor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"dayOfWeek\":1,\"startTime\":\"13:00\",\"endTime\":\"14:00\"}]"))
+                .andExpect(status().isOk());
+
+        CompiledSchedule schedule = scheduleCache.get(counselor.getId());
+        assertFalse(schedule.isAvailable(1, NINE));
+        assertTrue(schedule.isAvailable(1, ONE_PM));
+    }
+
+    @Test
+    void readOverlappingInvalidation_isNotCached() throws Exception {
+        User counselor = testData.availableCounselor("racing@example.com");
+
+        // Holds the first read after it has fetched the old windows.
+        AtomicBoolean hold = new AtomicBoolean(true);
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AvailabilityRepository blocking = (AvailabilityRepository) Proxy.newProxyInstance(
+                AvailabilityRepository.class.getClassLoader(),
+                new Class<?>[]{AvailabilityRepository.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(availabilityRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("findWindowsByCounselorIds") && hold.getAndSet(false)) {
+                        read.countDown();
+                        release.await(10, TimeUnit.SECONDS);
+                    }
+                    return result;
+                });
+        CounselorScheduleCache cache = new CounselorScheduleCache(blocking, new SimpleMeterRegistry(), 100, 60);
+
+        CompletableFuture<CompiledSchedule> racing = CompletableFuture.supplyAsync(() -> cache.get(counselor.getId()));
+        assertTrue(read.await(10, TimeUnit.SECONDS));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            availabilityRepository.deleteByCounselor(counselor);
+            testData.availability(counselor, DayOfWeek.MONDAY, ONE_PM, LocalTime.of(14, 0));
+            cache.invalidate(counselor.getId());
+        });
+        release.countDown();
+
+        // The racing caller still gets what it read, but it must not stay cached.
+        assertTrue(racing.get(10, TimeUnit.SECONDS).isAvailable(1, NINE));
+        CompiledSchedule schedule = cache.get(counselor.getId());
+        assertFalse(schedule.isAvailable(1, NINE));
+        assertTrue(schedule.isAvailable(1, ONE_PM));
+    }
+
+    @Test
+    void availabilityChangedOnAnotherNode_showsUpAfterTtl() throws Exception {
+        User counselor = testData.availableCounselor("remote-schedule@example.com");
+        CounselorScheduleCache cache = new CounselorScheduleCache(availabilityRepository, new SimpleMeterRegistry(), 100, 1);
+        assertTrue(cache.get(counselor.getId()).isAvailable(1, NINE));
+
+        // Replaced by another node: this cache is never invalidated.
+        transactionTemplate.executeWithoutResult(tx -> {
+            availabilityRepository.deleteByCounselor(counselor);
+            testData.availability(counselor, DayOfWeek.MONDAY, ONE_PM, LocalTime.of(14, 0));
+        });
+        assertTrue(cache.get(counselor.getId()).isAvailable(1, NINE));
+
+        Thread.sleep(1100);
+        CompiledSchedule schedule = cache.get(counselor.getId());
+        assertFalse(schedule.isAvailable(1, NINE));
+        assertTrue(schedule.isAvailable(1, ONE_PM));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.AvailabilityWindow;
+import com.example.mentalhealth.repository.BookedSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OpenSlotCalculatorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+
+    @Test
+    void subtractsBookedAppointmentsAndMergesOverlappingWindows() {
+        List<AvailabilityWindow> availability = List.of(
+                window(1, "09:00", "11:00"),
+                window(1, "10:30", "12:00"),
+                window(2, "14:00", "15:00")
+        );
+        List<BookedSlot> booked = List.of(
+                new BookedSlot(7L, MONDAY, LocalTime.of(10, 0)),
+                new BookedSlot(7L, MONDAY.plusDays(1), LocalTime.of(14, 0))
+        );
+
+        List<OpenSlot> slots = OpenSlotCalculator.calculate(7L, CompiledSchedule.compile(availability), booked, MONDAY, MONDAY.plusDays(1), 60, null, Integer.MAX_VALUE);
+
+        assertEquals(List.of(
+                new OpenSlot(7L, MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                new OpenSlot(7L, MONDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))
+        ), slots);
+    }
+
+    @Test
+    void offGridBookingBlocksEveryOverlappingSlot() {
+        List<AvailabilityWindow> availability = List.of(window(1, "09:00", "12:00"));
+        List<BookedSlot> booked = List.of(new BookedSlot(7L, MONDAY, LocalTime.of(9, 30)));
+
+        List<OpenSlot> slots = OpenSlotCalculator.calculate(7L, CompiledSchedule.compile(availability), booked, MONDAY, MONDAY, 60, null, Integer.MAX_VALUE);
+
+        assertEquals(List.of(new OpenSlot(7L, MONDAY, LocalTime.of(11, 0), LocalTime.of(12, 0))), slots);
+    }
+
+    private AvailabilityWindow window(int dayOfWeek, String start, String end) {
+        return new AvailabilityWindow(7L, dayOfWeek, LocalTime.parse(start), LocalTime.parse(end));
+    }
+}
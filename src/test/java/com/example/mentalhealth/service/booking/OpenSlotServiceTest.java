@@ -0,0 +1,103 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static com.example.mentalhealth.TestData.nextMonday;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * First-available search across counselors in {@link OpenSlotService}. One counselor per task,
+ * so the merge across tasks on the search pool is exercised.
+ */
+@SpringBootTest(properties = "mindcare.booking.open-slots.counselors-per-task=1")
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OpenSlotServiceTest {
+
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    @Autowired private OpenSlotService openSlotService;
+    @Autowired private SlotHoldRegistry slotHolds;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestData testData;
+
+    @Test
+    void findFirstAvailable_skipsBookedAndHeldSlotsAndInactiveCounselors() {
+        LocalDate monday = nextMonday();
+        User booked = testData.availableCounselor("booked@example.com");
+        User held = testData.availableCounselor("held@example.com");
+        User inactive = testData.availableCounselor("inactive@example.com");
+        inactive.setActive(false);
+        userRepository.save(inactive);
+        Patient patient = testData.patient("patient@example.com");
+        Patient other = testData.patient("other@example.com");
+
+        testData.appointment(other, booked, monday, NINE, "scheduled");
+        slotHolds.hold(other.getId(), held.getId(), monday, NINE);
+
+        List<OpenSlot> slots = openSlotService.findFirstAvailable(null, monday, monday, 60, 1, 10, patient.getId());
+
+        assertEquals(List.of(
+                new OpenSlot(booked.getId(), monday, TEN, LocalTime.of(11, 0)),
+                new OpenSlot(held.getId(), monday, TEN, LocalTime.of(11, 0))
+        ), slots);
+    }
+
+    @Test
+    void findFirstAvailable_keepsTheCallersOwnHoldVisible() {
+        LocalDate monday = nextMonday();
+        User counselor = testData.availableCounselor("counselor@example.com");
+        Patient patient = testData.patient("patient@example.com");
+        slotHolds.hold(patient.getId(), counselor.getId(), monday, NINE);
+
+        List<OpenSlot> slots = openSlotService.findFirstAvailable(null, monday, monday, 60, 1, 1, patient.getId());
+
+        assertEquals(List.of(new OpenSlot(counselor.getId(), monday, NINE, TEN)), slots);
+    }
+
+    @Test
+    void findFirstAvailable_filtersBySpecialtyIgnoringCase() {
+        LocalDate monday = nextMonday();
+        User anxiety = testData.availableCounselor("anxiety@example.com");
+        anxiety.setSpecialty("Anxiety and stress");
+        userRepository.save(anxiety);
+        User grief = testData.availableCounselor("grief@example.com");
+        grief.setSpecialty("Grief");
+        userRepository.save(grief);
+
+        List<OpenSlot> slots = openSlotService.findFirstAvailable(" ANXIETY ", monday, monday, 60, 8, 100, null);
+
+        assertEquals(8, slots.size());
+        assertTrue(slots.stream().allMatch(s -> s.counselorId().equals(anxiety.getId())));
+        assertTrue(openSlotService.findFirstAvailable("sleep", monday, monday, 60, 8, 100, null).isEmpty());
+    }
+
+    @Test
+    void findFirstAvailable_mergesCounselorsEarliestFirstUpToTheLimit() {
+        LocalDate monday = nextMonday();
+        User first = testData.availableCounselor("first@example.com");
+        User second = testData.availableCounselor("second@example.com");
+
+        List<OpenSlot> slots = openSlotService.findFirstAvailable("", monday, monday, 60, 2, 3, null);
+
+        assertEquals(List.of(
+                new OpenSlot(first.getId(), monday, NINE, TEN),
+                new OpenSlot(second.getId(), monday, NINE, TEN),
+                new OpenSlot(first.getId(), monday, TEN, LocalTime.of(11, 0))
+        ), slots);
+    }
+}
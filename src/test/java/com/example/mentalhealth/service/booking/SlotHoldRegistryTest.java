@@ -0,0 +1,64 @@
+package com.example.mentalhealth.service.booking;
+
+import com.example.mentalhealth.repository.BookedSlot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlotHoldRegistryTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    private final SlotHoldRegistry registry = new SlotHoldRegistry(300, new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void heldSlots_returnsOnlyRequestedCounselorsAndDates() {
+        registry.hold(1L, 10L, DAY, NINE);
+        registry.hold(2L, 20L, DAY, NINE);
+        registry.hold(3L, 10L, DAY.plusDays(1), TEN);
+
+        assertEquals(List.of(new BookedSlot(10L, DAY, NINE)),
+                registry.heldSlots(Set.of(10L, 30L), DAY, DAY, null));
+        assertEquals(2, registry.heldSlots(Set.of(10L, 20L), DAY, DAY, null).size());
+    }
+
+    @Test
+    void heldSlots_leavesOutTheRequestersOwnHold() {
+        registry.hold(1L, 10L, DAY, NINE);
+        registry.hold(2L, 10L, DAY, TEN);
+
+        assertEquals(List.of(new BookedSlot(10L, DAY, TEN)),
+                registry.heldSlots(Set.of(10L), DAY, DAY, 1L));
+    }
+
+    @Test
+    void heldSlots_forgetsReleasedAndReplacedHolds() {
+        SlotHoldRegistry.SlotHold first = registry.hold(1L, 10L, DAY, NINE);
+        registry.hold(1L, 20L, DAY, NINE);
+
+        assertTrue(registry.heldSlots(Set.of(10L), DAY, DAY, null).isEmpty());
+
+        SlotHoldRegistry.SlotHold second = registry.hold(2L, 10L, DAY, TEN);
+        assertTrue(registry.release(second.id(), 2L));
+        assertTrue(registry.heldSlots(Set.of(10L), DAY, DAY, null).isEmpty());
+        assertEquals(false, registry.release(first.id(), 1L));
+
+        registry.consume(1L, 20L, DAY, NINE);
+        assertTrue(registry.heldSlots(Set.of(20L), DAY, DAY, null).isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.PatientMoodStats;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.PatientMoodStatsRepository;
+import com.example.mentalhealth.repository.PatientRepository;
+import com.example.mentalhealth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MoodEntryUpsertConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired private MoodEntryService moodEntryService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PatientRepository patientRepository;
+    @Autowired private MoodEntryRepository moodEntryRepository;
+    @Autowired private PatientMoodStatsRepository patientMoodStatsRepository;
+
+    @Test
+    void concurrentWritesForSameDay_leaveOneRowPerPatientAndDay() throws Exception {
+        List<Patient> patients = new ArrayList<>();
+        for (int p = 0; p < 2; p++) {
+            User user = new User();
+            user.setEmail("upsert" + p + "@example.com");
+            user.setPassword("x");
+            user.setRole(User.Role.patient);
+            user.setActive(true);
+            Patient patient = new Patient();
+            patient.setUser(userRepository.save(user));
+            patients.add(patientRepository.save(patient));
+        }
+        LocalDate today = LocalDate.now();
+
+        // Each thread writes both patients' entry for today, with ratings 1..10.
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int rating = i % 10 + 1;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (Patient patient : patients) {
+                        moodEntryService.upsert(patient, today, rating, "thread " + rating);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<MoodEntry> entries = moodEntryRepository.findAll();
+        assertEquals(patients.size(), entries.size());
+        for (Patient patient : patients) {
+            MoodEntry entry = entries.stream()
+                    .filter(e -> e.getPatient().getId().equals(patient.getId()))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(today, entry.getEntryDate());
+            assertTrue(entry.getRating() >= 1 && entry.getRating() <= 10);
+            assertEquals("thread " + entry.getRating(), entry.getNotes());
+
+            // The stats row serialized on the same writes, so it agrees with the winning entry.
+            PatientMoodStats stats = patientMoodStatsRepository.findById(patient.getId()).orElseThrow();
+            assertEquals(entry.getRating(), stats.getLatestRating());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.MoodEntryWrite;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keeping the cached series in {@link MoodSeriesStore} in step with committed writes.
+ */
+@SpringBootTest(properties = "mindcare.mood.series.ttl-seconds=1")
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MoodSeriesStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired private MoodSeriesStore moodSeriesStore;
+    @Autowired private MoodEntryService moodEntryService;
+    @Autowired private MoodEntryRepository moodEntryRepository;
+    @Autowired private TestData testData;
+
+    @Test
+    void record_olderWriteArrivingLateDoesNotOverwriteNewerRating() {
+        Patient patient = testData.patient("late@example.com");
+        MoodEntry older = moodEntryService.upsert(patient, DAY, 3, null);
+        assertEquals(Map.of(DAY, 3), ratings(patient));
+
+        // The newer write's record() runs first, then the older one's.
+        moodEntryService.upsert(patient, DAY, 7, null);
+        moodSeriesStore.record(patient.getId(), DAY, 3, older.getSyncVersion());
+
+        assertEquals(Map.of(DAY, 7), ratings(patient));
+    }
+
+    @Test
+    void record_appliesNewerWritesWithoutReloading() {
+        Patient patient = testData.patient("newer@example.com");
+        moodEntryService.upsert(patient, DAY, 3, null);
+        assertEquals(Map.of(DAY, 3), ratings(patient));
+
+        moodEntryService.upsert(patient, DAY.plusDays(1), 5, null);
+        // Deleted behind the store's back: still served from the cached series.
+        moodEntryRepository.deleteAll();
+
+        assertEquals(Map.of(DAY, 3, DAY.plusDays(1), 5), ratings(patient));
+    }
+
+    @Test
+    void forEach_reloadsAfterTtlToSeeWritesFromOtherNodes() throws Exception {
+        Patient patient = testData.patient("remote@example.com");
+        moodEntryService.upsert(patient, DAY, 3, null);
+        assertEquals(Map.of(DAY, 3), ratings(patient));
+
+        // Written by another node: this store is never told.
+        moodEntryRepository.upsert(patient.getId(), new MoodEntryWrite(DAY.plusDays(1), 9, null, Instant.now(), 100));
+        assertEquals(Map.of(DAY, 3), ratings(patient));
+
+        Thread.sleep(1100);
+        assertEquals(Map.of(DAY, 3, DAY.plusDays(1), 9), ratings(patient));
+    }
+
+    private Map<LocalDate, Integer> ratings(Patient patient) {
+        Map<LocalDate, Integer> ratings = new TreeMap<>();
+        moodSeriesStore.forEach(patient.getId(), DAY.minusDays(30), DAY.plusDays(30), ratings::put);
+        return ratings;
+    }
+}
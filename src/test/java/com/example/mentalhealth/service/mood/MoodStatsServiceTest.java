@@ -0,0 +1,97 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.example.mentalhealth.repository.PatientMoodStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MoodStatsServiceTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private MoodEntryRepository moodEntryRepository;
+    @Autowired private PatientMoodStatsRepository patientMoodStatsRepository;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void counselorMoodStats_reflectSameDayReplacementAndRebuildMissingRows() throws Exception {
+        User counselor = testData.counselor("stats-counselor@example.com");
+        List<Patient> patients = List.of(
+                testData.patient("stats0@example.com", counselor),
+                testData.patient("stats1@example.com", counselor));
+        LocalDate today = LocalDate.now();
+
+        // Entries written before stats existed: two in the previous week for the first patient,
+        // one this week for the second.
+        int[][] legacy = {{0, 8, 3}, {0, 10, 3}, {1, 2, 5}};
+        for (int[] row : legacy) {
+            MoodEntry entry = new MoodEntry();
+            entry.setPatient(patients.get(row[0]));
+            entry.setEntryDate(today.minusDays(row[1]));
+            entry.setRating(row[2]);
+            moodEntryRepository.save(entry);
+        }
+
+        MockHttpSession patientSession = sessionFor(patients.get(0));
+        String[] writes = {
+                "{\"rating\":4,\"entryDate\":\"" + today + "\"}",
+                "{\"rating\":6,\"entryDate\":\"" + today.minusDays(1) + "\"}",
+                "{\"rating\":8,\"entryDate\":\"" + today + "\"}"
+        };
+        for (String write : writes) {
+            mockMvc.perform(post("/api/patient/mood")
+                            .session(patientSession)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(write))
+                    .andExpect(status().isCreated());
+        }
+        assertFalse(patientMoodStatsRepository.existsById(patients.get(1).getId()));
+
+        mockMvc.perform(get("/api/counselor/patients/mood-stats").session(sessionFor(counselor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].patientId").value(patients.get(0).getId()))
+                .andExpect(jsonPath("$[0].latestRating").value(8))
+                .andExpect(jsonPath("$[0].count7").value(2))
+                .andExpect(jsonPath("$[0].mean7").value(7.0))
+                .andExpect(jsonPath("$[0].count30").value(4))
+                .andExpect(jsonPath("$[0].mean30").value(5.0))
+                .andExpect(jsonPath("$[0].trend").value("up"))
+                .andExpect(jsonPath("$[1].latestRating").value(5))
+                .andExpect(jsonPath("$[1].mean7").value(5.0))
+                .andExpect(jsonPath("$[1].trend").doesNotExist());
+        assertTrue(patientMoodStatsRepository.existsById(patients.get(1).getId()));
+    }
+}
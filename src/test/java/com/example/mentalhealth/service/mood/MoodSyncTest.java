@@ -0,0 +1,175 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Offline mood sync through {@link MoodEntryService#sync}.
+ */
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MoodSyncTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private MoodEntryRepository moodEntryRepository;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void moodSync_appliesLastWriterWinsAndReturnsUnseenChanges() throws Exception {
+        Patient patient = testData.patient("sync@example.com");
+
+        LocalDate today = LocalDate.now();
+        LocalDate legacyDay = today.minusDays(2);
+        LocalDate onlineDay = today.minusDays(1);
+
+        // Written before sync existed: no client edit time, version 1.
+        MoodEntry legacy = new MoodEntry();
+        legacy.setPatient(patient);
+        legacy.setEntryDate(legacyDay);
+        legacy.setRating(3);
+        moodEntryRepository.save(legacy);
+
+        MockHttpSession session = sessionFor(patient);
+        mockMvc.perform(post("/api/patient/mood")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":4,\"entryDate\":\"" + onlineDay + "\"}"))
+                .andExpect(status().isCreated());
+
+        // The offline edit of onlineDay was made before the online one, so it loses.
+        Instant now = Instant.now();
+        String batch = "{\"since\":0,\"entries\":[" +
+                "{\"entryDate\":\"" + legacyDay + "\",\"rating\":7,\"clientUpdatedAt\":\"" + now.minusSeconds(3600) + "\"}," +
+                "{\"entryDate\":\"" + onlineDay + "\",\"rating\":9,\"clientUpdatedAt\":\"" + now.minusSeconds(86400) + "\"}," +
+                "{\"entryDate\":\"" + today + "\",\"rating\":5,\"notes\":\"offline\",\"clientUpdatedAt\":\"" + now.minusSeconds(60) + "\"}]}";
+        mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.watermark").value(5))
+                .andExpect(jsonPath("$.results[0].status").value("applied"))
+                .andExpect(jsonPath("$.results[1].status").value("stale"))
+                .andExpect(jsonPath("$.results[2].status").value("applied"))
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].entryDate").value(onlineDay.toString()))
+                .andExpect(jsonPath("$.changes[0].rating").value(4));
+
+        mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"since\":5,\"entries\":[{\"entryDate\":\"" + today + "\",\"rating\":6,\"clientUpdatedAt\":\"" + now + "\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.watermark").value(6))
+                .andExpect(jsonPath("$.results[0].status").value("applied"))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+
+        mockMvc.perform(get("/api/patient/mood").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].rating").value(7))
+                .andExpect(jsonPath("$[1].rating").value(4))
+                .andExpect(jsonPath("$[2].rating").value(6));
+    }
+
+    @Test
+    void moodSync_pagesUnseenChangesFromTheWatermark() throws Exception {
+        Patient patient = testData.patient("sync@example.com");
+        MockHttpSession session = sessionFor(patient);
+        LocalDate day = LocalDate.now();
+        String now = Instant.now().toString();
+
+        StringBuilder entries = new StringBuilder();
+        for (int i = 1; i <= MoodEntryService.MAX_SYNC_ENTRIES; i++) {
+            if (i > 1) {
+                entries.append(',');
+            }
+            entries.append("{\"entryDate\":\"").append(day.minusDays(i))
+                    .append("\",\"rating\":5,\"clientUpdatedAt\":\"").append(now).append("\"}");
+        }
+        mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"since\":0,\"entries\":[" + entries + "]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/patient/mood")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rating\":8,\"entryDate\":\"" + day + "\"}"))
+                .andExpect(status().isCreated());
+
+        // A new device pulls the whole history, one page at a time.
+        String firstPage = mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"since\":0,\"entries\":[]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(MoodEntryService.MAX_SYNC_CHANGES))
+                .andReturn().getResponse().getContentAsString();
+        long watermark = ((Number) JsonPath.read(firstPage, "$.watermark")).longValue();
+        assertEquals(((Number) JsonPath.read(firstPage, "$.changes[-1].syncVersion")).longValue(), watermark);
+
+        mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"since\":" + watermark + ",\"entries\":[]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()").value(1))
+                .andExpect(jsonPath("$.changes[0].rating").value(8))
+                .andExpect(jsonPath("$.watermark").value(watermark + 1));
+    }
+
+    @Test
+    void moodSync_rejectsBatchOverTheSyncLimit() throws Exception {
+        Patient patient = testData.patient("sync@example.com");
+        LocalDate day = LocalDate.now();
+        String now = Instant.now().toString();
+
+        StringBuilder entries = new StringBuilder();
+        for (int i = 0; i <= MoodEntryService.MAX_SYNC_ENTRIES; i++) {
+            if (i > 0) {
+                entries.append(',');
+            }
+            entries.append("{\"entryDate\":\"").append(day.minusDays(i))
+                    .append("\",\"rating\":5,\"clientUpdatedAt\":\"").append(now).append("\"}");
+        }
+        mockMvc.perform(post("/api/patient/mood/sync")
+                        .session(sessionFor(patient))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"since\":0,\"entries\":[" + entries + "]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, moodEntryRepository.count());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.MoodEntry;
+import com.example.mentalhealth.model.Patient;
+import com.example.mentalhealth.repository.MoodEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MoodTrendServiceTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private MoodEntryRepository moodEntryRepository;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void moodHistory_returnsWeeklyBucketsForRange() throws Exception {
+        Patient patient = testData.patient("trend@example.com");
+
+        // Every third day from Monday 2025-03-03.
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        int[] ratings = {2, 4, 6, 8, 10};
+        for (int i = 0; i < ratings.length; i++) {
+            MoodEntry entry = new MoodEntry();
+            entry.setPatient(patient);
+            entry.setEntryDate(monday.plusDays(i * 3L));
+            entry.setRating(ratings[i]);
+            entry.setNotes("long note " + i);
+            moodEntryRepository.save(entry);
+        }
+
+        // Entries on 03-03, 03-06 (week 1), 03-09 (week 1, Sunday), 03-12 (week 2); 03-15 is past "to".
+        mockMvc.perform(get("/api/patient/mood")
+                        .param("from", monday.toString())
+                        .param("to", monday.plusDays(10).toString())
+                        .param("granularity", "week")
+                        .session(sessionFor(patient)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].start").value("2025-03-03"))
+                .andExpect(jsonPath("$[0].end").value("2025-03-09"))
+                .andExpect(jsonPath("$[0].count").value(3))
+                .andExpect(jsonPath("$[0].min").value(2))
+                .andExpect(jsonPath("$[0].max").value(6))
+                .andExpect(jsonPath("$[0].mean").value(4.0))
+                .andExpect(jsonPath("$[1].start").value("2025-03-10"))
+                .andExpect(jsonPath("$[1].count").value(1))
+                .andExpect(jsonPath("$[0].notes").doesNotExist());
+    }
+}
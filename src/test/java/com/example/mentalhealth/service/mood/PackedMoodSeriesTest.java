@@ -0,0 +1,56 @@
+package com.example.mentalhealth.service.mood;
+
+import com.example.mentalhealth.repository.MoodPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PackedMoodSeriesTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void growsAtBothEndsAndReplacesSameDay() {
+        PackedMoodSeries series = PackedMoodSeries.of(List.of(
+                new MoodPoint(1L, START, 3),
+                new MoodPoint(1L, START.plusDays(20), 10)
+        ));
+
+        series = series.with(START.plusDays(20), 7)
+                .with(START.plusDays(40), 1)
+                .with(START.minusDays(5), 9);
+
+        List<String> seen = new ArrayList<>();
+        series.forEach(START.minusDays(10), START.plusDays(100), (date, rating) -> seen.add(date + "=" + rating));
+        assertEquals(List.of(
+                START.minusDays(5) + "=9",
+                START + "=3",
+                START.plusDays(20) + "=7",
+                START.plusDays(40) + "=1"
+        ), seen);
+        assertEquals(0, series.rating(START.plusDays(1)));
+        assertEquals(0, series.rating(START.plusDays(41)));
+    }
+
+    @Test
+    void packsAYearIntoTwentyThreeWordsAndRefusesRunawaySpans() {
+        List<MoodPoint> year = new ArrayList<>();
+        for (int i = 0; i < 365; i++) {
+            year.add(new MoodPoint(1L, START.plusDays(i), i % 10 + 1));
+        }
+        PackedMoodSeries series = PackedMoodSeries.of(year);
+
+        assertEquals(10, series.rating(START.plusDays(359)));
+        assertEquals(5, series.rating(START.plusDays(364)));
+        assertEquals(64 + 23 * 8, series.retainedBytes());
+        assertNull(series.with(START.plusDays(PackedMoodSeries.MAX_DAYS), 5));
+        assertNull(PackedMoodSeries.of(List.of(
+                new MoodPoint(1L, START, 5),
+                new MoodPoint(1L, LocalDate.of(9999, 12, 31), 5))));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.mentalhealth.tools;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Measures BCrypt latency on this host for a range of costs and suggests the highest cost
+ * that stays within a target time per hash, as a starting point for
+ * {@code mindcare.security.bcrypt-strength}.
+ *
+ * Arguments (all optional): {@code minCost maxCost targetMillis samples}, default {@code 8 14 250 5}.
+ * Kept with the test sources so it is not shipped in the application jar.
+ */
+public final class BcryptCalibration {
+    private BcryptCalibration() {
+    }
+
+    public static void main(String[] args) {
+        int minCost = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxCost = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+        long targetMillis = args.length > 2 ? Long.parseLong(args[2]) : 250;
+        int samples = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        // BCryptPasswordEncoder accepts costs 4-31.
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("Costs must satisfy 4 <= minCost <= maxCost <= 31");
+        }
+        if (targetMillis <= 0 || samples <= 0) {
+            throw new IllegalArgumentException("targetMillis and samples must be positive");
+        }
+
+        System.out.printf("BCrypt calibration on %d cores, %d samples per cost, target %d ms%n",
+                Runtime.getRuntime().availableProcessors(), samples, targetMillis);
+        System.out.printf("%6s %12s %12s%n", "cost", "median ms", "max ms");
+
+        int suggested = -1;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            String hash = encoder.encode("warm-up password");
+            encoder.matches("warm-up password", hash);
+
+            long[] millis = new long[samples];
+            for (int i = 0; i < samples; i++) {
+                long start = System.nanoTime();
+                encoder.matches("calibration password", hash);
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            long median = millis[samples / 2];
+            System.out.printf("%6d %12d %12d%n", cost, median, millis[samples - 1]);
+
+            if (median <= targetMillis) {
+                suggested = cost;
+            } else {
+                // Each step doubles the work; higher costs will only be slower.
+                break;
+            }
+        }
+
+        if (suggested < 0) {
+            System.out.printf("No cost in range is under %d ms; use %d and consider more hashing threads.%n", targetMillis, minCost);
+        } else {
+            System.out.printf("Suggested: mindcare.security.bcrypt-strength=%d%n", suggested);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.mentalhealth.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "mindcare.session.store=jdbc",
+        "mindcare.session.jdbc.flush-interval-ms=3600000",
+        "mindcare.session.jdbc.sweep-interval-ms=3600000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JdbcSessionRepositoryTest {
+
+    @Autowired private JdbcSessionRepository repository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void touches_areCoalescedUntilFlush_andExpiredSessionsAreSwept() {
+        JdbcSessionRepository.JdbcSession session = repository.createSession();
+        session.setAttribute("userId", 42L);
+        repository.save(session);
+        String id = session.getId();
+        long storedAccess = lastAccessedAt(id);
+
+        // Touch-only saves stay in memory, but reads already see the newest access time.
+        Instant later = Instant.ofEpochMilli(storedAccess).plusSeconds(30);
+        for (int i = 0; i < 3; i++) {
+            JdbcSessionRepository.JdbcSession loaded = repository.findById(id);
+            assertEquals(42L, (Long) loaded.getAttribute("userId"));
+            loaded.setLastAccessedTime(later.plusSeconds(i));
+            repository.save(loaded);
+        }
+        assertEquals(storedAccess, lastAccessedAt(id));
+        assertEquals(later.plusSeconds(2), repository.findById(id).getLastAccessedTime());
+
+        repository.flushAccessTimes();
+        assertEquals(later.plusSeconds(2).toEpochMilli(), lastAccessedAt(id));
+
+        JdbcSessionRepository.JdbcSession stale = repository.createSession();
+        stale.setMaxInactiveInterval(Duration.ofMinutes(1));
+        stale.setLastAccessedTime(Instant.now().minus(Duration.ofDays(1)));
+        repository.save(stale);
+
+        repository.sweepExpired();
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM http_sessions WHERE id = ?", Integer.class, stale.getId()));
+        assertNull(repository.findById(stale.getId()));
+        assertNotNull(repository.findById(id));
+    }
+
+    private long lastAccessedAt(String id) {
+        return jdbcTemplate.queryForObject("SELECT last_accessed_at FROM http_sessions WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.mentalhealth.web;
+
+import com.example.mentalhealth.TestData;
+import com.example.mentalhealth.model.User;
+import com.example.mentalhealth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.mentalhealth.TestData.sessionFor;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Import(TestData.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class KeysetPaginationTest {
+
+    private MockMvc mockMvc;
+    @Autowired private WebApplicationContext webApplicationContext;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TestData testData;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void adminUsers_pagesWithCursorAndFilters() throws Exception {
+        User admin = testData.user("pager-admin@example.com", User.Role.admin);
+        for (int i = 0; i < 5; i++) {
+            User user = testData.user("paged" + i + "@example.com", i < 4 ? User.Role.patient : User.Role.counselor);
+            if (i == 3) {
+                user.setActive(false);
+                userRepository.save(user);
+            }
+        }
+        MockHttpSession session = sessionFor(admin);
+
+        List<String> emails = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/api/admin/users")
+                            .param("role", "patient")
+                            .param("active", "true")
+                            .param("limit", "2")
+                            .param("cursor", cursor)
+                            .session(session))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String body = result.getResponse().getContentAsString();
+            Matcher m = Pattern.compile("\"email\":\"([^\"]+)\"").matcher(body);
+            while (m.find()) {
+                emails.add(m.group(1));
+            }
+            cursor = result.getResponse().getHeader(Keyset.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("paged0@example.com", "paged1@example.com", "paged2@example.com"), emails);
+        assertEquals(2, pages);
+
+        mockMvc.perform(get("/api/admin/users").param("cursor", "not-a-cursor").session(session))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,68 @@
+-- Schema as ddl-auto=update created it from the entities before Flyway took over: no
+-- active_slot, no unique mood index, and none of the later tables.
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    name VARCHAR(100),
+    specialty VARCHAR(100),
+    role VARCHAR(20),
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE patients (
+    user_id BIGINT PRIMARY KEY REFERENCES users (id),
+    emergency_contact VARCHAR(100),
+    assigned_counselor_id BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE appointments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL REFERENCES patients (user_id),
+    counselor_id BIGINT NOT NULL REFERENCES users (id),
+    appointment_date DATE NOT NULL,
+    appointment_time TIME NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE availability (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    counselor_id BIGINT NOT NULL REFERENCES users (id),
+    day_of_week INTEGER,
+    start_time TIME,
+    end_time TIME
+);
+
+CREATE TABLE mood_entries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    patient_id BIGINT NOT NULL REFERENCES patients (user_id),
+    rating INTEGER NOT NULL,
+    notes TEXT,
+    entry_date DATE NOT NULL
+);
+
+CREATE TABLE profile_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    description VARCHAR(200) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO users (id, email, password, role, active, created_at) VALUES
+    (1, 'counselor@example.com', 'x', 'counselor', TRUE, CURRENT_TIMESTAMP),
+    (2, 'patient@example.com', 'x', 'patient', TRUE, CURRENT_TIMESTAMP);
+INSERT INTO patients (user_id) VALUES (2);
+
+-- A slot double-booked before the unique index existed, and a canceled booking of the same slot.
+INSERT INTO appointments (id, patient_id, counselor_id, appointment_date, appointment_time, status, created_at) VALUES
+    (1, 2, 1, DATE '2026-01-05', TIME '10:00:00', 'scheduled', CURRENT_TIMESTAMP),
+    (2, 2, 1, DATE '2026-01-05', TIME '10:00:00', 'confirmed', CURRENT_TIMESTAMP),
+    (3, 2, 1, DATE '2026-01-05', TIME '10:00:00', 'canceled', CURRENT_TIMESTAMP);
+
+-- Two entries for the same day; the newer one (id 2) is kept.
+INSERT INTO mood_entries (id, patient_id, rating, notes, entry_date) VALUES
+    (1, 2, 3, 'first', DATE '2026-01-05'),
+    (2, 2, 7, 'second', DATE '2026-01-05'),
+    (3, 2, 5, NULL, DATE '2026-01-06');